@@ -0,0 +1,20 @@
+package com.solvd.testng.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH suites and always writes JSON results, so runs can be compared between releases
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String resultFile = System.getProperty("jmh.result", "target/jmh-result.json");
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,57 @@
+package com.solvd.testng.benchmarks;
+
+import com.solvd.testng.utils.DriverPool;
+import com.solvd.testng.utils.PooledSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Pool bookkeeping and session reset around a fake driver, i.e. the cost of a lease without browser startup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dpool.maxLeases=1000000")
+public class DriverPoolBenchmark {
+
+    // Headless, so the pool does not try to maximize a window the fake driver does not have
+    private static final String BROWSER = "fake:headless";
+
+    @Setup
+    public void setUp() {
+        DriverPool.setBackend((browser, preset) -> new FakeWebDriver(1));
+        DriverPool.warmUp(BROWSER, 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DriverPool.shutdown();
+    }
+
+    @Benchmark
+    public PooledSession checkoutAndRelease() {
+        PooledSession session = DriverPool.checkout(BROWSER);
+        DriverPool.release(session);
+        return session;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PooledSession checkoutAndReleaseContended() {
+        PooledSession session = DriverPool.checkout(BROWSER);
+        DriverPool.release(session);
+        return session;
+    }
+}
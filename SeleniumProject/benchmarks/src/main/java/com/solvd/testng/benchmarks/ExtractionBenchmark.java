@@ -0,0 +1,73 @@
+package com.solvd.testng.benchmarks;
+
+import com.solvd.testng.pages.CartPage;
+import com.solvd.testng.utils.PriceParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    private static final String RAW_PRICE = "$360 *includes tax";
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private FakeWebDriver driver;
+    private CartPage cartPage;
+
+    @Setup
+    public void setUp() {
+        driver = new FakeWebDriver(cartSize);
+        cartPage = new CartPage(driver);
+    }
+
+    @Benchmark
+    public List<String> bulkCartPrices(RoundTrips roundTrips) {
+        long before = driver.getCommandCount();
+        List<String> prices = cartPage.getProductPricesInCart();
+        roundTrips.add(driver.getCommandCount() - before);
+        return prices;
+    }
+
+    // What getProductPricesInCart did before the bulk extraction: one getText per cell and a regex per price
+    @Benchmark
+    public List<String> perElementCartPrices(RoundTrips roundTrips) {
+        long before = driver.getCommandCount();
+        List<String> prices = driver.findElements(By.cssSelector("#tbodyid > tr > td:nth-child(3)")).stream()
+                .map(WebElement::getText)
+                .map(rawPrice -> rawPrice.replaceAll("[^0-9]", ""))
+                .toList();
+        roundTrips.add(driver.getCommandCount() - before);
+        return prices;
+    }
+
+    @Benchmark
+    public String priceParserDigits() {
+        return PriceParser.digits(RAW_PRICE);
+    }
+
+    @Benchmark
+    public String regexDigits() {
+        return RAW_PRICE.replaceAll("[^0-9]", "");
+    }
+}
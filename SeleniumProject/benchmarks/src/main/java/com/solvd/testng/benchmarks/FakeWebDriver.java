@@ -0,0 +1,162 @@
+package com.solvd.testng.benchmarks;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * In-memory WebDriver. Every call that would be a WebDriver HTTP round trip is counted, lookups return
+ * a configurable number of elements and the bulk extraction scripts used by the pages return matching rows.
+ */
+class FakeWebDriver implements WebDriver, JavascriptExecutor {
+
+    private final int elementCount;
+    private final AtomicLong commands = new AtomicLong();
+    private final List<WebElement> elements;
+
+    FakeWebDriver(int elementCount) {
+        this.elementCount = elementCount;
+        List<WebElement> created = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; i++) {
+            created.add(new FakeWebElement(this, "$" + (100 + i) + " *includes tax"));
+        }
+        this.elements = Collections.unmodifiableList(created);
+    }
+
+    void countCommand() {
+        commands.incrementAndGet();
+    }
+
+    long getCommandCount() {
+        return commands.get();
+    }
+
+    @Override
+    public void get(String url) {
+        countCommand();
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        countCommand();
+        return "about:blank";
+    }
+
+    @Override
+    public String getTitle() {
+        countCommand();
+        return "STORE";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        countCommand();
+        return elements;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        countCommand();
+        return elements.isEmpty() ? new FakeWebElement(this, "") : elements.get(0);
+    }
+
+    @Override
+    public String getPageSource() {
+        countCommand();
+        return "<html></html>";
+    }
+
+    @Override
+    public void close() {
+        countCommand();
+    }
+
+    @Override
+    public void quit() {
+        countCommand();
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        countCommand();
+        return Set.of("fake");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        countCommand();
+        return "fake";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return (TargetLocator) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{TargetLocator.class},
+                (proxy, method, args) -> {
+                    countCommand();
+                    if ("alert".equals(method.getName())) {
+                        throw new NoAlertPresentException();
+                    }
+                    return this;
+                });
+    }
+
+    @Override
+    public Navigation navigate() {
+        return (Navigation) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Navigation.class},
+                (proxy, method, args) -> {
+                    countCommand();
+                    return null;
+                });
+    }
+
+    @Override
+    public Options manage() {
+        return (Options) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Options.class},
+                (proxy, method, args) -> {
+                    countCommand();
+                    return "getCookies".equals(method.getName()) ? Set.of() : null;
+                });
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        countCommand();
+        if (script.contains("#tbodyid > tr")) {
+            List<List<Object>> rows = new ArrayList<>(elementCount);
+            for (int i = 0; i < elementCount; i++) {
+                rows.add(List.of("Product " + i, String.valueOf(100 + i), "id-" + i));
+            }
+            return rows;
+        }
+        if (script.contains("a.hrefch")) {
+            List<List<Object>> cards = new ArrayList<>(elementCount);
+            for (int i = 0; i < elementCount; i++) {
+                cards.add(List.of("Product " + i, "$" + (100 + i), (long) i + 1));
+            }
+            return cards;
+        }
+        if (script.contains("XPathResult")) {
+            List<List<WebElement>> batches = new ArrayList<>();
+            for (Object ignored : (List<?>) args[0]) {
+                batches.add(elements);
+            }
+            return batches;
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        countCommand();
+        return null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.solvd.testng.benchmarks;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+// Element that answers from memory, so benchmarks measure the page-object layer and not a browser
+class FakeWebElement implements WebElement {
+
+    private final FakeWebDriver driver;
+    private final String text;
+
+    FakeWebElement(FakeWebDriver driver, String text) {
+        this.driver = driver;
+        this.text = text;
+    }
+
+    @Override
+    public void click() {
+        driver.countCommand();
+    }
+
+    @Override
+    public void submit() {
+        driver.countCommand();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        driver.countCommand();
+    }
+
+    @Override
+    public void clear() {
+        driver.countCommand();
+    }
+
+    @Override
+    public String getTagName() {
+        driver.countCommand();
+        return "td";
+    }
+
+    // Deprecated in WebElement, the override says so too so the module compiles without the warning
+    @Deprecated
+    @Override
+    public String getAttribute(String name) {
+        driver.countCommand();
+        return null;
+    }
+
+    @Override
+    public boolean isSelected() {
+        driver.countCommand();
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        driver.countCommand();
+        return true;
+    }
+
+    @Override
+    public String getText() {
+        driver.countCommand();
+        return text;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return driver.findElements(by);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return driver.findElement(by);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        driver.countCommand();
+        return true;
+    }
+
+    @Override
+    public Point getLocation() {
+        driver.countCommand();
+        return new Point(0, 0);
+    }
+
+    @Override
+    public Dimension getSize() {
+        driver.countCommand();
+        return new Dimension(100, 20);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        driver.countCommand();
+        return new Rectangle(getLocation(), getSize());
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        driver.countCommand();
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        throw new UnsupportedOperationException("Screenshots are not supported by the fake driver");
+    }
+}
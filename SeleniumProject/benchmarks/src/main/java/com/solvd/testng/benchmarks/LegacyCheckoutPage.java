@@ -0,0 +1,41 @@
+package com.solvd.testng.benchmarks;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+
+// CheckoutPage as it was built before PageElements, kept as the PageFactory baseline
+class LegacyCheckoutPage {
+
+    @FindBy(xpath = "//input[@id='name']")
+    WebElement nameField;
+
+    @FindBy(xpath = "//input[@id='country']")
+    WebElement countryField;
+
+    @FindBy(xpath = "//input[@id='city']")
+    WebElement cityField;
+
+    @FindBy(xpath = "//input[@id='card']")
+    WebElement cardField;
+
+    @FindBy(xpath = "//input[@id='month']")
+    WebElement monthField;
+
+    @FindBy(xpath = "//input[@id='year']")
+    WebElement yearField;
+
+    @FindBy(xpath = "//button[@onclick='purchaseOrder()']")
+    WebElement purchaseButton;
+
+    @FindBy(css = "p.lead.text-muted")
+    WebElement purchaseDetails;
+
+    @FindBy(xpath = "//button[@class='confirm btn btn-lg btn-primary']")
+    WebElement confirmButton;
+
+    LegacyCheckoutPage(WebDriver driver) {
+        PageFactory.initElements(driver, this);
+    }
+}
@@ -0,0 +1,61 @@
+package com.solvd.testng.benchmarks;
+
+import com.solvd.testng.pages.CheckoutPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Reads every checkout field once, the way fillCheckoutDetails and the waits around it do
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatorBenchmark {
+
+    private FakeWebDriver driver;
+    private CheckoutPage cachedPage;
+    private LegacyCheckoutPage pageFactoryPage;
+
+    @Setup
+    public void setUp() {
+        driver = new FakeWebDriver(1);
+        cachedPage = new CheckoutPage(driver);
+        pageFactoryPage = new LegacyCheckoutPage(driver);
+    }
+
+    @Benchmark
+    public void cachedLocators(Blackhole blackhole, RoundTrips roundTrips) {
+        long before = driver.getCommandCount();
+        blackhole.consume(cachedPage.getNameField().isDisplayed());
+        blackhole.consume(cachedPage.getCountryField().isDisplayed());
+        blackhole.consume(cachedPage.getCityField().isDisplayed());
+        blackhole.consume(cachedPage.getCardField().isDisplayed());
+        blackhole.consume(cachedPage.getMonthField().isDisplayed());
+        blackhole.consume(cachedPage.getYearField().isDisplayed());
+        roundTrips.add(driver.getCommandCount() - before);
+    }
+
+    @Benchmark
+    public void pageFactoryLocators(Blackhole blackhole, RoundTrips roundTrips) {
+        long before = driver.getCommandCount();
+        blackhole.consume(pageFactoryPage.nameField.isDisplayed());
+        blackhole.consume(pageFactoryPage.countryField.isDisplayed());
+        blackhole.consume(pageFactoryPage.cityField.isDisplayed());
+        blackhole.consume(pageFactoryPage.cardField.isDisplayed());
+        blackhole.consume(pageFactoryPage.monthField.isDisplayed());
+        blackhole.consume(pageFactoryPage.yearField.isDisplayed());
+        roundTrips.add(driver.getCommandCount() - before);
+    }
+}
@@ -0,0 +1,48 @@
+package com.solvd.testng.benchmarks;
+
+import com.solvd.testng.pages.CheckoutPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageObjectBenchmark {
+
+    private FakeWebDriver driver;
+
+    @Setup
+    public void setUp() {
+        driver = new FakeWebDriver(1);
+    }
+
+    @Benchmark
+    public CheckoutPage pageElementsConstruction() {
+        return new CheckoutPage(driver);
+    }
+
+    @Benchmark
+    public Object pageFactoryConstruction() {
+        return new LegacyCheckoutPage(driver);
+    }
+
+    @Benchmark
+    public WebDriverWait newWebDriverWait() {
+        return new WebDriverWait(driver, Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,17 @@
+package com.solvd.testng.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// Reported next to the timings as the number of WebDriver commands the benchmark operations issued
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class RoundTrips {
+
+    public long commands;
+
+    void add(long issued) {
+        commands += issued;
+    }
+}
@@ -0,0 +1,238 @@
+package com.solvd.testng.load;
+
+import com.solvd.testng.utils.DriverPool;
+import com.solvd.testng.utils.LatencyHistogram;
+import com.solvd.testng.utils.LogContext;
+import com.solvd.testng.utils.Person;
+import com.solvd.testng.utils.PooledSession;
+import com.solvd.testng.utils.StoreAccounts;
+import com.solvd.testng.utils.StoreConfig;
+import com.solvd.testng.utils.WaitLatencies;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Replays the purchase journey as a closed-loop load test: -Dload.users virtual users each repeat it on their
+ * own pooled browser, for -Dload.duration seconds or, if set, -Dload.iterations measured iterations per user.
+ * Iterations finished during the first -Dload.warmup seconds are not counted.
+ *
+ * With -Dload.pacing=<ms> every user starts an iteration on a fixed schedule. Latencies are then also taken
+ * from the scheduled start ("response" time), so an iteration that runs late because the previous one was
+ * slow counts the wait instead of hiding it (coordinated omission). "service" is the time the step itself
+ * took. Without pacing there is no schedule and both are the same.
+ */
+@Slf4j
+public class LoadRunner {
+
+    private static final String BROWSER = System.getProperty("load.browser", "chrome:headless");
+    private static final int USERS = Integer.getInteger("load.users", 4);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 60));
+    private static final long ITERATIONS = Long.getLong("load.iterations", 0);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+    private static final Duration PACING = Duration.ofMillis(Long.getLong("load.pacing", 0));
+    private static final String USER_PREFIX = System.getProperty("load.userPrefix", "loaduser");
+    private static final String PASSWORD = System.getProperty("load.password", "1234");
+    private static final List<Integer> PRODUCTS = Arrays.stream(System.getProperty("load.products", "0,1,2,3,4,5,6,7,8")
+            .split(",")).map(String::trim).map(Integer::valueOf).toList();
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-report.json"));
+
+    private static final String TRANSACTION = "purchase";
+
+    private final Map<String, StepStats> steps = new LinkedHashMap<>();
+    private final LongAdder transactions = new LongAdder();
+    private final AtomicLong lastMeasuredEnd = new AtomicLong();
+    private long measureStart;
+
+    public static void main(String[] args) {
+        if (USERS > DriverPool.getCapacity()) {
+            throw new IllegalArgumentException("load.users=" + USERS + " needs -Dpool.size of at least " + USERS
+                    + ", the pool holds " + DriverPool.getCapacity());
+        }
+        LoadRunner runner = new LoadRunner();
+        try {
+            runner.run();
+        } finally {
+            WaitLatencies.save();
+            DriverPool.shutdown();
+        }
+    }
+
+    private LoadRunner() {
+        for (PurchaseJourney.Step step : PurchaseJourney.steps("", "", 0, null)) {
+            steps.put(step.name(), new StepStats());
+        }
+        steps.put(TRANSACTION, new StepStats());
+    }
+
+    private void run() {
+        log.info("Load: {} users on {} against {}, {} after {}s warm-up{}", USERS, BROWSER, StoreConfig.baseUrl(),
+                ITERATIONS > 0 ? ITERATIONS + " iterations each" : DURATION.toSeconds() + "s", WARMUP.toSeconds(),
+                PACING.isZero() ? "" : ", one iteration per user every " + PACING.toMillis() + "ms");
+        DriverPool.warmUp(BROWSER, USERS);
+
+        long start = System.nanoTime();
+        measureStart = start + WARMUP.toNanos();
+        long deadline = ITERATIONS > 0 ? Long.MAX_VALUE : measureStart + DURATION.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 1; user <= USERS; user++) {
+                int id = user;
+                users.submit(() -> {
+                    LogContext.startTest("load user " + id, BROWSER);
+                    try {
+                        runUser(id, start, deadline);
+                    } catch (RuntimeException e) {
+                        log.warn("Load user {} stopped: {}", id, e.getMessage());
+                    } finally {
+                        LogContext.clear();
+                    }
+                });
+            }
+        }
+        report();
+    }
+
+    private void runUser(int user, long start, long deadline) {
+        String username = USER_PREFIX + user;
+        Person buyer = new Person("Load User " + user, "Poland", "Cracow", "411111111111", "December", "2030");
+        // The real store only logs in accounts that were signed up
+        StoreAccounts.ensure(username, PASSWORD);
+        // Users start their schedules evenly spread over one pacing interval instead of all at once
+        long intended = start + PACING.toNanos() * (user - 1) / USERS;
+        long measured = 0;
+        for (int iteration = 0; (ITERATIONS > 0 ? measured < ITERATIONS : intended < deadline); iteration++) {
+            int product = PRODUCTS.get((user + iteration) % PRODUCTS.size());
+            PooledSession session = DriverPool.checkout(BROWSER);
+            LogContext.session(session);
+            if (PACING.isZero()) {
+                intended = System.nanoTime();
+            } else {
+                sleepUntil(intended);
+            }
+            if (runIteration(session, PurchaseJourney.steps(username, PASSWORD, product, buyer), intended)) {
+                measured++;
+            }
+            intended += PACING.toNanos();
+        }
+    }
+
+    // Returns whether the iteration ended after the warm-up, i.e. whether it was recorded as a success or an error
+    private boolean runIteration(PooledSession session, List<PurchaseJourney.Step> journey, long intended) {
+        long iterationStart = System.nanoTime();
+        long previousEnd = intended;
+        List<long[]> samples = new ArrayList<>(journey.size());
+        for (PurchaseJourney.Step step : journey) {
+            long stepStart = System.nanoTime();
+            try {
+                step.action().accept(session.getDriver());
+            } catch (RuntimeException e) {
+                long end = System.nanoTime();
+                // A half-finished purchase leaves the browser in an unknown state, so it is not reused
+                DriverPool.evict(session);
+                if (end >= measureStart) {
+                    steps.get(step.name()).errors.increment();
+                    steps.get(TRANSACTION).errors.increment();
+                    // Selenium appends build and driver info, the first line is enough for a load log
+                    String message = String.valueOf(e.getMessage()).lines().findFirst().orElse("");
+                    log.warn("Load step {} failed: {}", step.name(), message);
+                }
+                return end >= measureStart;
+            }
+            long end = System.nanoTime();
+            // The first step's response time runs from the scheduled start, every other one from the previous step
+            samples.add(new long[]{end - stepStart, end - previousEnd});
+            previousEnd = end;
+        }
+        DriverPool.release(session);
+
+        if (previousEnd < measureStart) {
+            return false;
+        }
+        for (int i = 0; i < journey.size(); i++) {
+            steps.get(journey.get(i).name()).record(samples.get(i)[0], samples.get(i)[1]);
+        }
+        steps.get(TRANSACTION).record(previousEnd - iterationStart, previousEnd - intended);
+        transactions.increment();
+        lastMeasuredEnd.accumulateAndGet(previousEnd, Math::max);
+        return true;
+    }
+
+    private void report() {
+        double seconds = Math.max(1, lastMeasuredEnd.get() - measureStart) / 1e9;
+        double tps = transactions.sum() / seconds;
+        log.info("Load: {} transactions in {}s, {} TPS", transactions.sum(), String.format("%.1f", seconds),
+                String.format("%.2f", tps));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("browser", BROWSER);
+        json.put("users", USERS);
+        json.put("pacingMs", PACING.toMillis());
+        json.put("measuredSeconds", seconds);
+        json.put("transactions", transactions.sum());
+        json.put("tps", tps);
+        Map<String, Object> stepsJson = new LinkedHashMap<>();
+        steps.forEach((name, stats) -> {
+            log.info("Load {}: errors={}", name, stats.errors.sum());
+            log.info("    service  {}", stats.service);
+            log.info("    response {}", stats.response);
+            stepsJson.put(name, Map.of("errors", stats.errors.sum(),
+                    "service", toJson(stats.service), "response", toJson(stats.response)));
+        });
+        json.put("steps", stepsJson);
+        try {
+            Files.createDirectories(REPORT.toAbsolutePath().getParent());
+            Files.writeString(REPORT, new Json().toJson(json), StandardCharsets.UTF_8);
+            log.info("Load report: {}", REPORT.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Could not write the load report: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toJson(LatencyHistogram histogram) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("count", histogram.getCount());
+        json.put("p50Ms", toMillis(histogram.getPercentileMicros(50)));
+        json.put("p95Ms", toMillis(histogram.getPercentileMicros(95)));
+        json.put("p99Ms", toMillis(histogram.getPercentileMicros(99)));
+        json.put("maxMs", toMillis(histogram.getMaxMicros()));
+        return json;
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static class StepStats {
+
+        private final LatencyHistogram service = new LatencyHistogram();
+        private final LatencyHistogram response = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long serviceNanos, long responseNanos) {
+            service.recordNanos(serviceNanos);
+            response.recordNanos(responseNanos);
+        }
+    }
+}
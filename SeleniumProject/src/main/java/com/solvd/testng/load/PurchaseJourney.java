@@ -0,0 +1,83 @@
+package com.solvd.testng.load;
+
+import com.solvd.testng.pages.AllProductsPage;
+import com.solvd.testng.pages.CartPage;
+import com.solvd.testng.pages.CheckoutPage;
+import com.solvd.testng.pages.LoginPage;
+import com.solvd.testng.pages.ProductPage;
+import com.solvd.testng.utils.AdaptiveWait;
+import com.solvd.testng.utils.Person;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * The purchase flow of the functional suite split into the steps the load runner times separately. Every
+ * step ends with the wait for the element the user would look at next, so its latency is what a user sees.
+ */
+class PurchaseJourney {
+
+    record Step(String name, Consumer<WebDriver> action) {
+    }
+
+    private PurchaseJourney() {
+    }
+
+    static List<Step> steps(String username, String password, int productIndex, Person buyer) {
+        return List.of(
+                new Step("login", driver -> login(driver, username, password)),
+                new Step("selectProduct", driver -> selectProduct(driver, productIndex)),
+                new Step("addToCart", PurchaseJourney::addToCart),
+                new Step("openCart", PurchaseJourney::openCart),
+                new Step("placeOrder", PurchaseJourney::placeOrder),
+                new Step("checkout", driver -> checkout(driver, buyer)));
+    }
+
+    private static void login(WebDriver driver, String username, String password) {
+        LoginPage loginPage = new LoginPage(driver);
+        loginPage.open();
+        loginPage.openLoginModal();
+        loginPage.login(username, password);
+        AdaptiveWait.on(driver, "LoginPage.welcomeText")
+                .withMessage("The element Welcome text was not found!")
+                .until(ExpectedConditions.textToBePresentInElement(loginPage.getWelcomeTextElement(), username));
+    }
+
+    private static void selectProduct(WebDriver driver, int productIndex) {
+        new AllProductsPage(driver).selectProductByIndex(productIndex);
+        AdaptiveWait.on(driver, "ProductPage.price")
+                .withMessage("The element Product price was not found!")
+                .until(ExpectedConditions.visibilityOf(new ProductPage(driver).getProductPriceElement()));
+    }
+
+    private static void addToCart(WebDriver driver) {
+        new ProductPage(driver).addToCart().await();
+    }
+
+    private static void openCart(WebDriver driver) {
+        new ProductPage(driver).goToCart();
+        new CartPage(driver).getProductNameInTheCartElement();
+    }
+
+    private static void placeOrder(WebDriver driver) {
+        new CartPage(driver).placeOrder();
+        AdaptiveWait.on(driver, "CheckoutPage.nameField")
+                .withMessage("The element Name field was not found!")
+                .until(ExpectedConditions.visibilityOf(new CheckoutPage(driver).getNameField()));
+    }
+
+    private static void checkout(WebDriver driver, Person buyer) {
+        CheckoutPage checkoutPage = new CheckoutPage(driver);
+        checkoutPage.fillCheckoutDetails(buyer);
+        AdaptiveWait.on(driver, "CheckoutPage.purchaseButton")
+                .withMessage("The element Purchase button was not found!")
+                .until(ExpectedConditions.elementToBeClickable(checkoutPage.getPurchaseButton()));
+        checkoutPage.completePurchase();
+        AdaptiveWait.on(driver, "CheckoutPage.purchaseDetails")
+                .withMessage("The element Purchase details was not found!")
+                .until(ExpectedConditions.visibilityOf(checkoutPage.getPurchaseDetailsElement()));
+        checkoutPage.confirmPurchase();
+    }
+}
@@ -1,22 +1,45 @@
 package com.solvd.testng.pages;
 
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import com.solvd.testng.utils.AdaptiveWait;
+import com.solvd.testng.utils.DomGeneration;
+import com.solvd.testng.utils.PageElements;
+import com.solvd.testng.utils.PageReadiness;
+import com.solvd.testng.utils.PriceParser;
 import lombok.Getter;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 @Getter
+@SuppressWarnings("try")
 public class AllProductsPage {
 
+    private static final String PRODUCT_SELECTOR = "a.hrefch";
+    private static final Duration REPLACED_SLEEP = Duration.ofSeconds(2);
+    private static final String CATALOG_SCRIPT = """
+            return Array.from(document.querySelectorAll('a.hrefch')).map(function (link) {
+                var card = link.closest('.card-block') || link.parentElement.parentElement;
+                var price = card.querySelector('h5');
+                var id = /idp_=(\\d+)/.exec(link.getAttribute('href'));
+                return [link.innerText.trim(), price ? price.innerText : '0', id ? parseInt(id[1], 10) : -1];
+            });
+            """;
+
     private WebDriver driver;
 
+    private PageElements elements;
+
+    private PageReadiness readiness;
+
     @FindBy(xpath = "//a[@class='hrefch']")
     private List<WebElement> productList;
 
@@ -31,40 +54,71 @@ public class AllProductsPage {
 
     public AllProductsPage(WebDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(driver, this);
+        this.readiness = new PageReadiness(driver);
+        this.elements = PageElements.init(driver, this);
     }
 
-    public void selectProductByIndex(int index) throws InterruptedException {
-        Thread.sleep(2000);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    // Returns once the catalog request has finished and the product cards stopped changing
+    public int waitForCatalog() {
+        return readiness.awaitStableCount("catalog", PRODUCT_SELECTOR, REPLACED_SLEEP);
+    }
 
-        // Re-fetch the product list to avoid stale references
-        List<WebElement> updatedProductList = wait.until(
-                ExpectedConditions.presenceOfAllElementsLocatedBy(By.xpath("//a[@class='hrefch']")));
+    public void selectProductByIndex(int index) {
+        try (Span ignored = Profiler.start(Profiler.PAGE, "AllProductsPage.selectProductByIndex")) {
+            waitForCatalog();
+            // Re-fetch the product list to avoid stale references
+            List<WebElement> updatedProductList = AdaptiveWait.on(driver, "AllProductsPage.products")
+                    .until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.xpath("//a[@class='hrefch']")));
 
-        if (index >= updatedProductList.size()) {
-            throw new IndexOutOfBoundsException("Index out of bounds: " + index);
-        }
+            if (index >= updatedProductList.size()) {
+                throw new IndexOutOfBoundsException("Index out of bounds: " + index);
+            }
 
-        WebElement product = wait.withMessage("Product is not visible in the list!")
-                .until(ExpectedConditions.elementToBeClickable(updatedProductList.get(index)));
+            WebElement product = AdaptiveWait.on(driver, "AllProductsPage.productClickable")
+                    .withMessage("Product is not visible in the list!")
+                    .until(ExpectedConditions.elementToBeClickable(updatedProductList.get(index)));
 
-        product.click();
+            readiness.expectNavigation();
+            product.click();
+            DomGeneration.advance(driver);
+        }
     }
 
-    public List<String> getProductNames() throws InterruptedException {
-        Thread.sleep(2000);
-        return productList.stream()
-                .map(WebElement::getText)
+    public List<String> getProductNames() {
+        return getCatalog().stream()
+                .map(CatalogItem::title)
                 .toList();
     }
 
+    // Title, price and id of every product card, read in a single round trip
+    public List<CatalogItem> getCatalog() {
+        try (Span ignored = Profiler.start(Profiler.PAGE, "AllProductsPage.getCatalog")) {
+            waitForCatalog();
+            List<?> cards = (List<?>) ((JavascriptExecutor) driver).executeScript(CATALOG_SCRIPT);
+            List<CatalogItem> catalog = new ArrayList<>(cards.size());
+            for (Object card : cards) {
+                List<?> fields = (List<?>) card;
+                catalog.add(new CatalogItem((String) fields.get(0), PriceParser.parse((String) fields.get(1)),
+                        ((Number) fields.get(2)).intValue()));
+            }
+            return catalog;
+        }
+    }
+
     public void goToHome() {
-        Home.click();
+        try (Span ignored = Profiler.start(Profiler.PAGE, "AllProductsPage.goToHome")) {
+            readiness.expectNavigation();
+            Home.click();
+            DomGeneration.advance(driver);
+        }
     }
 
 
     public void goToCart() {
-        cartButton.click();
+        try (Span ignored = Profiler.start(Profiler.PAGE, "AllProductsPage.goToCart")) {
+            readiness.expectNavigation();
+            cartButton.click();
+            DomGeneration.advance(driver);
+        }
     }
 }
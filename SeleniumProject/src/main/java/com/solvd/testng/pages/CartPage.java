@@ -1,21 +1,41 @@
 package com.solvd.testng.pages;
 
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import com.solvd.testng.utils.AdaptiveWait;
+import com.solvd.testng.utils.DomGeneration;
+import com.solvd.testng.utils.PageElements;
+import com.solvd.testng.utils.PriceParser;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
+@SuppressWarnings("try")
 public class CartPage {
 
+    private static final String CART_ROWS_SCRIPT = """
+            return Array.from(document.querySelectorAll('#tbodyid > tr'))
+                .filter(function (row) { return row.offsetParent !== null; })
+                .map(function (row) {
+                    var cells = row.querySelectorAll('td');
+                    var link = row.querySelector("a[onclick*='deleteItem']");
+                    var id = link && /deleteItem\\('([^']*)'\\)/.exec(link.getAttribute('onclick'));
+                    return [cells[1].innerText.trim(), cells[2].innerText.trim(), id ? id[1] : null];
+                });
+            """;
+
     private WebDriver driver;
 
+    private PageElements elements;
+
     @FindBy(css = "#tbodyid > tr > td:nth-child(2)")
     private List<WebElement> productNamesInCart;
 
@@ -39,21 +59,22 @@ public class CartPage {
 
     public CartPage(WebDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(driver, this);
+        this.elements = PageElements.init(driver, this);
     }
 
     public List<String> getProductNamesInCart() {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("Product names are not visible in the cart!")
-                .until(ExpectedConditions.visibilityOfAllElements(productNamesInCart));
-
-        if (productNamesInCart.isEmpty()) {
-            throw new IllegalStateException("No product names found in the cart!");
+        try (Span ignored = Profiler.start(Profiler.PAGE, "CartPage.getProductNamesInCart")) {
+            List<CartRow> rows = AdaptiveWait.on(driver, "CartPage.rows")
+                    .withMessage("Product names are not visible in the cart!")
+                    .until(d -> {
+                        List<CartRow> visibleRows = readCartRows();
+                        return visibleRows.isEmpty() ? null : visibleRows;
+                    });
+
+            return rows.stream()
+                    .map(CartRow::name)
+                    .toList();
         }
-
-        return productNamesInCart.stream()
-                .map(WebElement::getText)
-                .toList();
     }
 
 
@@ -62,31 +83,45 @@ public class CartPage {
     }
 
     public List<String> getProductPricesInCart() {
-
-        return productPricesInCart.stream()
-                .map(WebElement::getText)
-                .map(rawPrice -> rawPrice.replaceAll("[^0-9]", ""))
+        return readCartRows().stream()
+                .map(row -> String.valueOf(row.price()))
                 .toList();
     }
 
+    // Name, price and delete id of every visible cart row, read in a single round trip
+    public List<CartRow> readCartRows() {
+        try (Span ignored = Profiler.start(Profiler.PAGE, "CartPage.readCartRows")) {
+            List<?> rows = (List<?>) ((JavascriptExecutor) driver).executeScript(CART_ROWS_SCRIPT);
+            List<CartRow> cartRows = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                List<?> cells = (List<?>) row;
+                cartRows.add(new CartRow((String) cells.get(0), PriceParser.parse((String) cells.get(1)),
+                        (String) cells.get(2)));
+            }
+            return cartRows;
+        }
+    }
+
     public List<WebElement> getProductPricesInCartElement() {
         return productPricesInCart;
     }
 
+    public WebDriver getDriver() {
+        return driver;
+    }
+
     public void placeOrder() {
-        placeOrderButton.click();
+        Profiler.time(Profiler.PAGE, "CartPage.placeOrder", placeOrderButton::click);
     }
 
     public WebElement getProductNameInTheCartElement() {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("No product names found in the cart!")
-                .until(ExpectedConditions.visibilityOfAllElements(productNamesInCart));
-
-        if (productNamesInCart.isEmpty()) {
-            throw new IllegalStateException("No product names found in the cart!");
-        }
-
-        return productNamesInCart.get(0);
+        // Name and price cells are checked together, so resolve both columns in one round trip
+        elements.prefetch("productNamesInCart", "productPricesInCart");
+        // Only passes once there is at least one visible row
+        return AdaptiveWait.on(driver, "CartPage.nameCells")
+                .withMessage("No product names found in the cart!")
+                .until(ExpectedConditions.visibilityOfAllElements(productNamesInCart))
+                .get(0);
     }
 
 
@@ -95,25 +130,34 @@ public class CartPage {
     }
 
     public String getTotalPrice() {
-        return totalPrice.getText();
+        return Profiler.time(Profiler.PAGE, "CartPage.getTotalPrice", totalPrice::getText);
     }
 
     public void logout() {
-        logoutButton.click();
-        System.out.println("Wylogowano użytkownika.");
+        try (Span ignored = Profiler.start(Profiler.PAGE, "CartPage.logout")) {
+            logoutButton.click();
+            DomGeneration.advance(driver);
+            log.info("Wylogowano użytkownika.");
+        }
     }
 
     public void deleteAllItems() {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        for (WebElement deleteButton : deleteButtons) {
-            deleteButton.click();
-            wait.until(ExpectedConditions.stalenessOf(deleteButton));
-        }
-
-        boolean isEmpty = cartTable.findElements(By.xpath("./tr")).isEmpty();
-        if (!isEmpty) {
-            throw new AssertionError("Cart is not empty after deleting items!");
+        try (Span ignored = Profiler.start(Profiler.PAGE, "CartPage.deleteAllItems")) {
+            // The table is redrawn after every delete, so take a fresh button each time instead of iterating one list.
+            // The cached list only looks again once the generation moves on
+            List<WebElement> remaining = deleteButtons;
+            while (!remaining.isEmpty()) {
+                WebElement deleteButton = remaining.get(0);
+                deleteButton.click();
+                AdaptiveWait.on(driver, "CartPage.itemDeleted").until(ExpectedConditions.stalenessOf(deleteButton));
+                DomGeneration.advance(driver);
+                remaining = deleteButtons;
+            }
+
+            boolean isEmpty = cartTable.findElements(By.xpath("./tr")).isEmpty();
+            if (!isEmpty) {
+                throw new AssertionError("Cart is not empty after deleting items!");
+            }
         }
     }
 
@@ -0,0 +1,4 @@
+package com.solvd.testng.pages;
+
+public record CartRow(String name, int price, String deleteId) {
+}
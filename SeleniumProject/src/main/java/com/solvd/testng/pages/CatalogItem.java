@@ -0,0 +1,4 @@
+package com.solvd.testng.pages;
+
+public record CatalogItem(String title, int price, int productId) {
+}
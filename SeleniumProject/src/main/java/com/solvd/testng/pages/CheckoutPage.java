@@ -1,17 +1,24 @@
 package com.solvd.testng.pages;
 
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import com.solvd.testng.utils.DomGeneration;
+import com.solvd.testng.utils.FormFiller;
+import com.solvd.testng.utils.PageElements;
 import com.solvd.testng.utils.Person;
 import lombok.Getter;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 
 @Getter
+@SuppressWarnings("try")
 public class CheckoutPage {
 
     private WebDriver driver;
 
+    private PageElements elements;
+
     @FindBy(xpath = "//input[@id='name']")
     WebElement nameField;
 
@@ -41,32 +48,36 @@ public class CheckoutPage {
 
     public CheckoutPage(WebDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(driver, this);
+        this.elements = PageElements.init(driver, this);
     }
 
-//    public void fillCheckoutDetails(String name, String country, String city, String card, String month, String year) {
-//        nameField.sendKeys(name);
-//        countryField.sendKeys(country);
-//        cityField.sendKeys(city);
-//        cardField.sendKeys(card);
-//        monthField.sendKeys(month);
-//        yearField.sendKeys(year);
-//    }
     public void fillCheckoutDetails(Person person) {
-        nameField.sendKeys(person.getName());
-        countryField.sendKeys(person.getCountry());
-        cityField.sendKeys(person.getCity());
-        cardField.sendKeys(person.getCreditCard());
-        monthField.sendKeys(person.getMonth());
-        yearField.sendKeys(person.getYear());
+        fillCheckoutDetails(person, null);
+    }
+
+    // Waits for the order form itself, see FormFiller; input null uses the default (-Dform.input)
+    public void fillCheckoutDetails(Person person, FormFiller.Input input) {
+        try (Span ignored = Profiler.start(Profiler.PAGE, "CheckoutPage.fillCheckoutDetails")) {
+            FormFiller form = FormFiller.in(driver, "#orderModal")
+                    .field("#name", person.name())
+                    .field("#country", person.country())
+                    .field("#city", person.city())
+                    .field("#card", person.creditCard())
+                    .field("#month", person.month())
+                    .field("#year", person.year());
+            if (input != null) {
+                form.using(input);
+            }
+            form.fill();
+        }
     }
 
     public void completePurchase() {
-        purchaseButton.click();
+        Profiler.time(Profiler.PAGE, "CheckoutPage.completePurchase", purchaseButton::click);
     }
 
     public String getPurchaseDetails() {
-        return purchaseDetails.getText();
+        return Profiler.time(Profiler.PAGE, "CheckoutPage.getPurchaseDetails", purchaseDetails::getText);
     }
 
     public WebElement getPurchaseDetailsElement() {
@@ -74,6 +85,9 @@ public class CheckoutPage {
     }
 
     public void confirmPurchase() {
-    	confirmButton.click();
+        try (Span ignored = Profiler.start(Profiler.PAGE, "CheckoutPage.confirmPurchase")) {
+        	confirmButton.click();
+            DomGeneration.advance(driver);
+        }
     }
 }
@@ -1,16 +1,24 @@
 package com.solvd.testng.pages;
 
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import com.solvd.testng.utils.DomGeneration;
+import com.solvd.testng.utils.FormFiller;
+import com.solvd.testng.utils.PageElements;
+import com.solvd.testng.utils.StoreConfig;
 import lombok.Getter;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 
 @Getter
+@SuppressWarnings("try")
 public class LoginPage {
 
     private WebDriver driver;
 
+    private PageElements elements;
+
     @FindBy(xpath = "//a[@id='login2']")
     private WebElement loginButton;
 
@@ -28,17 +36,23 @@ public class LoginPage {
 
     public LoginPage(WebDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(driver, this);
+        this.elements = PageElements.init(driver, this);
     }
 
     public void openLoginModal() {
-        loginButton.click();
+        Profiler.time(Profiler.PAGE, "LoginPage.openLoginModal", loginButton::click);
     }
 
+    // Waits for the login form itself, see FormFiller
     public void login(String username, String password) {
-        usernameField.sendKeys(username);
-        passwordField.sendKeys(password);
-        submitButton.click();
+        try (Span ignored = Profiler.start(Profiler.PAGE, "LoginPage.login")) {
+            FormFiller.in(driver, "#logInModal")
+                    .field("#loginusername", username)
+                    .field("#loginpassword", password)
+                    .fill();
+            submitButton.click();
+            DomGeneration.advance(driver);
+        }
     }
 
     public String getWelcomeText() {
@@ -50,6 +64,9 @@ public class LoginPage {
     }
 
     public void open() {
-        driver.get("https://www.demoblaze.com/index.html");
+        try (Span ignored = Profiler.start(Profiler.PAGE, "LoginPage.open")) {
+            driver.get(StoreConfig.pageUrl("index.html"));
+            DomGeneration.advance(driver);
+        }
     }
 }
@@ -1,14 +1,22 @@
 package com.solvd.testng.pages;
 
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import com.solvd.testng.utils.Dialogs;
+import com.solvd.testng.utils.DomGeneration;
+import com.solvd.testng.utils.PageElements;
+import com.solvd.testng.utils.PriceParser;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 
+@SuppressWarnings("try")
 public class ProductPage {
 
     private WebDriver driver;
 
+    private PageElements elements;
+
     @FindBy(xpath = "//h3[@class='price-container']")
     private WebElement priceContainer;
 
@@ -20,21 +28,29 @@ public class ProductPage {
 
     public ProductPage(WebDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(driver, this);
+        this.elements = PageElements.init(driver, this);
     }
 
 
     public String getProductPrice() {
-        String rawPrice = priceContainer.getText();
-        return rawPrice.replaceAll("[^0-9]", "");
+        return Profiler.time(Profiler.PAGE, "ProductPage.getProductPrice",
+                () -> PriceParser.digits(priceContainer.getText()));
     }
 
-    public void addToCart() {
-        addToCartButton.click();
+    // The store confirms with a "Product added" alert, which the returned dialog accepts, see Dialogs
+    public Dialogs.PendingDialog addToCart() {
+        try (Span ignored = Profiler.start(Profiler.PAGE, "ProductPage.addToCart")) {
+            Dialogs.PendingDialog added = Dialogs.expect(driver, "ProductPage.addedAlert");
+            addToCartButton.click();
+            return added;
+        }
     }
 
     public void goToCart() {
-        cartButton.click();
+        try (Span ignored = Profiler.start(Profiler.PAGE, "ProductPage.goToCart")) {
+            cartButton.click();
+            DomGeneration.advance(driver);
+        }
     }
 
     public WebElement getProductPriceElement() {
@@ -0,0 +1,84 @@
+package com.solvd.testng.pages;
+
+import com.solvd.testng.utils.PageSnapshot;
+import com.solvd.testng.utils.PriceParser;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The parts of the store's pages that tests assert on, captured together, see PageSnapshot
+public class StoreSnapshot {
+
+    public static final String CART = "cart";
+    public static final String TOTAL = "total";
+    public static final String PURCHASE = "purchase";
+    public static final String WELCOME = "welcome";
+
+    private static final Map<String, String> REGIONS = Map.of(
+            CART, "#tbodyid",
+            TOTAL, "#totalp",
+            PURCHASE, "p.lead.text-muted",
+            WELCOME, "#nameofuser");
+    private static final Pattern DELETE_ID = Pattern.compile("deleteItem\\('([^']*)'\\)");
+
+    private final PageSnapshot snapshot;
+
+    private StoreSnapshot(PageSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public static StoreSnapshot capture(WebDriver driver) {
+        return new StoreSnapshot(PageSnapshot.capture(driver, REGIONS));
+    }
+
+    // Only the regions that changed since this snapshot are read again
+    public StoreSnapshot refresh() {
+        PageSnapshot next = snapshot.refresh();
+        return next == snapshot ? this : new StoreSnapshot(next);
+    }
+
+    public StoreSnapshot awaitUntil(String condition, String message, Predicate<StoreSnapshot> predicate) {
+        return new StoreSnapshot(snapshot.awaitUntil(condition, message, next -> predicate.test(new StoreSnapshot(next))));
+    }
+
+    // Visible rows only, like CartPage.readCartRows
+    public List<CartRow> cartRows() {
+        PageSnapshot.Node cart = snapshot.region(CART);
+        if (cart == null) {
+            return List.of();
+        }
+        return cart.children("tr").stream()
+                .filter(PageSnapshot.Node::visible)
+                .map(row -> {
+                    List<PageSnapshot.Node> cells = row.children("td");
+                    String deleteId = row.find(node -> node.tag().equals("a") && node.attribute("onclick") != null
+                                    && node.attribute("onclick").contains("deleteItem"))
+                            .map(link -> DELETE_ID.matcher(link.attribute("onclick")))
+                            .filter(Matcher::find)
+                            .map(matcher -> matcher.group(1))
+                            .orElse(null);
+                    return new CartRow(cells.get(1).text(), PriceParser.parse(cells.get(2).text()), deleteId);
+                })
+                .toList();
+    }
+
+    public String totalPrice() {
+        return snapshot.text(TOTAL);
+    }
+
+    public String purchaseDetails() {
+        return snapshot.text(PURCHASE);
+    }
+
+    public String welcomeText() {
+        return snapshot.text(WELCOME);
+    }
+
+    public boolean isVisible(String region) {
+        return snapshot.isVisible(region);
+    }
+}
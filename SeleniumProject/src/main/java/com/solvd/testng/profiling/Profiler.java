@@ -0,0 +1,101 @@
+package com.solvd.testng.profiling;
+
+import java.util.function.Supplier;
+
+/*
+ * Collects a tree of spans per test: the test listener opens the root, page objects, waits, the driver
+ * pool and the WebDriver listener add nested spans. Work done on a thread with no open test is not recorded.
+ */
+@SuppressWarnings("try")
+public class Profiler {
+
+    public static final String TEST = "test";
+    public static final String STEP = "step";
+    public static final String PAGE = "page";
+    public static final String WAIT = "wait";
+    public static final String COMMAND = "command";
+    public static final String NAVIGATION = "navigation";
+    public static final String ALERT = "alert";
+    public static final String STARTUP = "startup";
+    public static final String POOL = "pool";
+
+    private static final Span NOOP = new Span("noop", "noop", null);
+    private static final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    private Profiler() {
+    }
+
+    public static void startTest(String testName) {
+        Span open = current.get();
+        if (open != null) {
+            finishTest();
+        }
+        current.set(new Span(TEST, testName, null));
+    }
+
+    public static Span finishTest() {
+        Span span = current.get();
+        if (span == null) {
+            return null;
+        }
+        while (span.getParent() != null) {
+            span.end();
+            span = span.getParent();
+        }
+        span.end();
+        current.remove();
+        return span;
+    }
+
+    // The root is opened before the test method is known, e.g. for @BeforeMethod, and named once it is
+    public static void nameTest(String testName) {
+        Span span = current.get();
+        while (span != null && span.getParent() != null) {
+            span = span.getParent();
+        }
+        if (span != null) {
+            span.rename(testName);
+        }
+    }
+
+    public static boolean isRecording() {
+        return current.get() != null;
+    }
+
+    public static Span start(String category, String name) {
+        Span parent = current.get();
+        if (parent == null) {
+            return NOOP;
+        }
+        Span span = new Span(category, name, parent);
+        current.set(span);
+        return span;
+    }
+
+    public static <T> T time(String category, String name, Supplier<T> work) {
+        try (Span ignored = start(category, name)) {
+            return work.get();
+        }
+    }
+
+    public static void time(String category, String name, Runnable work) {
+        try (Span ignored = start(category, name)) {
+            work.run();
+        }
+    }
+
+    static void end(Span span) {
+        if (span == NOOP || !span.isOpen()) {
+            return;
+        }
+        span.end();
+        // Spans closed out of order still leave the thread pointing at the closest open ancestor
+        Span open = current.get();
+        while (open != null && !open.isOpen()) {
+            open = open.getParent();
+        }
+        if (open != null) {
+            current.set(open);
+        }
+    }
+}
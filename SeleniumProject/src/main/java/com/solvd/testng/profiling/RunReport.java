@@ -0,0 +1,229 @@
+package com.solvd.testng.profiling;
+
+import com.solvd.testng.utils.LatencyHistogram;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Rolls finished test span trees up into per-test category totals and per-suite histograms, and writes
+ * them as report.json plus a flame-style report.html in which every test is drawn as stacked span rows.
+ * Tests added with a browser are also rolled up per browser, for runs that cover several.
+ */
+public class RunReport {
+
+    private static final Queue<Span> tests = new ConcurrentLinkedQueue<>();
+    private static final Map<Span, String> browsers = new ConcurrentHashMap<>();
+
+    private RunReport() {
+    }
+
+    public static void add(Span test) {
+        if (test != null) {
+            tests.add(test);
+        }
+    }
+
+    public static void add(Span test, String browser) {
+        if (test != null && browser != null) {
+            browsers.put(test, browser);
+        }
+        add(test);
+    }
+
+    public static void write(Path directory) {
+        List<Span> finished = new ArrayList<>(tests);
+        finished.sort(Comparator.comparingLong(Span::getStartNanos));
+
+        Map<String, LatencyHistogram> categories = new TreeMap<>();
+        Map<String, LatencyHistogram> spans = new TreeMap<>();
+        finished.forEach(test -> collect(test, categories, spans));
+
+        Map<String, LatencyHistogram> testsByBrowser = new TreeMap<>();
+        Map<String, Map<String, LatencyHistogram>> categoriesByBrowser = new TreeMap<>();
+        finished.stream().filter(browsers::containsKey).forEach(test -> {
+            String browser = browsers.get(test);
+            testsByBrowser.computeIfAbsent(browser, key -> new LatencyHistogram()).recordNanos(test.getDurationNanos());
+            collect(test, categoriesByBrowser.computeIfAbsent(browser, key -> new TreeMap<>()), new TreeMap<>());
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("categories", toJson(categories));
+        report.put("spans", toJson(spans));
+        if (!testsByBrowser.isEmpty()) {
+            Map<String, Object> perBrowser = new LinkedHashMap<>();
+            testsByBrowser.forEach((browser, durations) -> perBrowser.put(browser, Map.of(
+                    "tests", toJson(durations),
+                    "categories", toJson(categoriesByBrowser.get(browser)))));
+            report.put("browsers", perBrowser);
+        }
+        report.put("tests", finished.stream().map(RunReport::testToJson).toList());
+
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("report.json"), new Json().toJson(report), StandardCharsets.UTF_8);
+            Files.writeString(directory.resolve("report.html"), toHtml(finished, categories, testsByBrowser, categoriesByBrowser),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the timing report to " + directory, e);
+        }
+    }
+
+    private static void collect(Span span, Map<String, LatencyHistogram> categories, Map<String, LatencyHistogram> spans) {
+        categories.computeIfAbsent(span.getCategory(), key -> new LatencyHistogram()).recordNanos(span.getSelfNanos());
+        spans.computeIfAbsent(span.getCategory() + ":" + span.getName(), key -> new LatencyHistogram())
+                .recordNanos(span.getDurationNanos());
+        span.getChildren().forEach(child -> collect(child, categories, spans));
+    }
+
+    private static Map<String, Object> testToJson(Span test) {
+        Map<String, Long> selfByCategory = new TreeMap<>();
+        sumSelfTime(test, selfByCategory);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", test.getName());
+        json.put("durationMs", millis(test.getDurationNanos()));
+        Map<String, Object> categoryMillis = new LinkedHashMap<>();
+        selfByCategory.forEach((category, nanos) -> categoryMillis.put(category, millis(nanos)));
+        json.put("categories", categoryMillis);
+        json.put("tree", spanToJson(test, test.getStartNanos()));
+        return json;
+    }
+
+    private static void sumSelfTime(Span span, Map<String, Long> selfByCategory) {
+        selfByCategory.merge(span.getCategory(), span.getSelfNanos(), Long::sum);
+        span.getChildren().forEach(child -> sumSelfTime(child, selfByCategory));
+    }
+
+    private static Map<String, Object> spanToJson(Span span, long origin) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("category", span.getCategory());
+        json.put("name", span.getName());
+        json.put("startMs", millis(span.getStartNanos() - origin));
+        json.put("durationMs", millis(span.getDurationNanos()));
+        if (!span.getChildren().isEmpty()) {
+            json.put("children", span.getChildren().stream().map(child -> spanToJson(child, origin)).toList());
+        }
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> json.put(name, toJson(histogram)));
+        return json;
+    }
+
+    private static Map<String, Object> toJson(LatencyHistogram histogram) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.getCount());
+        stats.put("totalMs", TimeUnit.MICROSECONDS.toMillis(histogram.getTotalMicros()));
+        stats.put("p50Ms", TimeUnit.MICROSECONDS.toMillis(histogram.getPercentileMicros(50)));
+        stats.put("p95Ms", TimeUnit.MICROSECONDS.toMillis(histogram.getPercentileMicros(95)));
+        stats.put("p99Ms", TimeUnit.MICROSECONDS.toMillis(histogram.getPercentileMicros(99)));
+        stats.put("maxMs", TimeUnit.MICROSECONDS.toMillis(histogram.getMaxMicros()));
+        return stats;
+    }
+
+    private static String toHtml(List<Span> finished, Map<String, LatencyHistogram> categories,
+                                 Map<String, LatencyHistogram> testsByBrowser,
+                                 Map<String, Map<String, LatencyHistogram>> categoriesByBrowser) {
+        StringBuilder html = new StringBuilder("""
+                <!DOCTYPE html>
+                <html><head><meta charset="utf-8"><title>Timing report</title><style>
+                body { font-family: sans-serif; font-size: 12px; }
+                table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 8px; text-align: right; }
+                .flame { position: relative; width: 100%; }
+                .row { position: relative; height: 18px; }
+                .span { position: absolute; height: 16px; overflow: hidden; white-space: nowrap; border: 1px solid #fff;
+                        box-sizing: border-box; padding-left: 2px; }
+                .test { background: #9e9e9e; } .step { background: #90caf9; } .page { background: #a5d6a7; }
+                .wait { background: #ffcc80; } .command { background: #ce93d8; } .navigation { background: #80deea; }
+                .alert { background: #ef9a9a; } .startup { background: #f48fb1; } .pool { background: #bcaaa4; }
+                </style></head><body>
+                <h1>Where the seconds go</h1>
+                <h2>Suite, self time per category</h2>
+                <table><tr><th>category</th><th>spans</th><th>total ms</th><th>p50 ms</th><th>p95 ms</th><th>max ms</th></tr>
+                """);
+        categories.forEach((category, histogram) -> html.append("<tr><td>").append(category)
+                .append("</td><td>").append(histogram.getCount())
+                .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(histogram.getTotalMicros()))
+                .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(histogram.getPercentileMicros(50)))
+                .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(histogram.getPercentileMicros(95)))
+                .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(histogram.getMaxMicros()))
+                .append("</td></tr>\n"));
+        html.append("</table>\n");
+
+        if (!testsByBrowser.isEmpty()) {
+            List<String> columns = categories.keySet().stream().toList();
+            html.append("<h2>Per browser, test durations and self time per category</h2>\n")
+                    .append("<table><tr><th>browser</th><th>tests</th><th>p50 ms</th><th>p95 ms</th><th>max ms</th>");
+            columns.forEach(category -> html.append("<th>").append(category).append(" ms</th>"));
+            html.append("</tr>\n");
+            testsByBrowser.forEach((browser, durations) -> {
+                html.append("<tr><td>").append(escape(browser))
+                        .append("</td><td>").append(durations.getCount())
+                        .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(durations.getPercentileMicros(50)))
+                        .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(durations.getPercentileMicros(95)))
+                        .append("</td><td>").append(TimeUnit.MICROSECONDS.toMillis(durations.getMaxMicros()));
+                Map<String, LatencyHistogram> selfTimes = categoriesByBrowser.get(browser);
+                columns.forEach(category -> {
+                    LatencyHistogram histogram = selfTimes.get(category);
+                    html.append("</td><td>").append(histogram == null ? 0 : TimeUnit.MICROSECONDS.toMillis(histogram.getTotalMicros()));
+                });
+                html.append("</td></tr>\n");
+            });
+            html.append("</table>\n");
+        }
+
+        for (Span test : finished) {
+            html.append("<h2>").append(escape(test.getName())).append(" - ")
+                    .append(millis(test.getDurationNanos())).append(" ms</h2>\n<div class=\"flame\">\n");
+            List<List<Span>> rows = new ArrayList<>();
+            layout(test, 0, rows);
+            double total = Math.max(1, test.getDurationNanos());
+            for (List<Span> row : rows) {
+                html.append("<div class=\"row\">");
+                for (Span span : row) {
+                    double left = (span.getStartNanos() - test.getStartNanos()) * 100.0 / total;
+                    double width = span.getDurationNanos() * 100.0 / total;
+                    String label = escape(span.getName()) + " (" + millis(span.getDurationNanos()) + " ms)";
+                    html.append(String.format("<div class=\"span %s\" style=\"left:%.3f%%;width:%.3f%%\" title=\"%s\">%s</div>",
+                            span.getCategory(), left, width, label, label));
+                }
+                html.append("</div>\n");
+            }
+            html.append("</div>\n");
+        }
+        return html.append("</body></html>\n").toString();
+    }
+
+    private static void layout(Span span, int depth, List<List<Span>> rows) {
+        if (rows.size() <= depth) {
+            rows.add(new ArrayList<>());
+        }
+        rows.get(depth).add(span);
+        span.getChildren().forEach(child -> layout(child, depth + 1, rows));
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,78 @@
+package com.solvd.testng.profiling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// One timed piece of work inside a test, nested under whatever was running when it started
+public class Span implements AutoCloseable {
+
+    private final String category;
+    private String name;
+    private final Span parent;
+    private final List<Span> children = new ArrayList<>();
+    private final long startNanos;
+    private long endNanos;
+
+    Span(String category, String name, Span parent) {
+        this.category = category;
+        this.name = name;
+        this.parent = parent;
+        this.startNanos = System.nanoTime();
+        if (parent != null) {
+            parent.children.add(this);
+        }
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void rename(String name) {
+        this.name = name;
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    public List<Span> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    // Time spent in this span itself and not in any of its children
+    public long getSelfNanos() {
+        long childNanos = 0;
+        for (Span child : children) {
+            childNanos += child.getDurationNanos();
+        }
+        return Math.max(0, getDurationNanos() - childNanos);
+    }
+
+    boolean isOpen() {
+        return endNanos == 0;
+    }
+
+    void end() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() {
+        Profiler.end(this);
+    }
+}
@@ -0,0 +1,165 @@
+package com.solvd.testng.profiling;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Times every WebDriver, WebElement, Alert and options call made through the driver it wraps. It is a plain
+ * JDK proxy over the interfaces the driver implements, so a call costs one reflective invoke; threads that are
+ * not recording a test go straight through without a span. Elements, options, navigation, target locator and
+ * alerts the driver hands out are wrapped the same way, and wrapped values passed back in are unwrapped.
+ */
+@SuppressWarnings("try")
+public class TimedDriver implements InvocationHandler {
+
+    private static final Set<String> NAVIGATION_METHODS = Set.of("get", "to", "back", "forward", "refresh");
+    private static final Set<Class<?>> WRAPPED_RESULTS = Set.of(WebDriver.Options.class, WebDriver.Navigation.class,
+            WebDriver.TargetLocator.class, WebDriver.Timeouts.class, WebDriver.Window.class, Alert.class);
+
+    private static final ClassValue<Class<?>[]> INTERFACES = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            Set<Class<?>> interfaces = new LinkedHashSet<>();
+            collectInterfaces(type, interfaces);
+            interfaces.add(WebElement.class.isAssignableFrom(type) ? WrapsElement.class : WrapsDriver.class);
+            // A proxy can only implement interfaces it can see
+            interfaces.removeIf(candidate -> !Modifier.isPublic(candidate.getModifiers()));
+            return interfaces.toArray(Class<?>[]::new);
+        }
+    };
+
+    private final Object target;
+    private final WebDriver driver;
+    // The wrapped driver, handed out again where the driver returns itself, e.g. switchTo().window(...)
+    private WebDriver root;
+
+    private TimedDriver(Object target, WebDriver driver, WebDriver root) {
+        this.target = target;
+        this.driver = driver;
+        this.root = root;
+    }
+
+    public static WebDriver wrap(WebDriver driver) {
+        TimedDriver handler = new TimedDriver(driver, driver, null);
+        handler.root = (WebDriver) Proxy.newProxyInstance(classLoaderOf(driver), INTERFACES.get(driver.getClass()),
+                handler);
+        return handler.root;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> target.equals(unwrap(args[0]));
+                case "hashCode" -> target.hashCode();
+                default -> target.toString();
+            };
+        }
+        if (method.getDeclaringClass() == WrapsDriver.class) {
+            return driver;
+        }
+        if (method.getDeclaringClass() == WrapsElement.class) {
+            return target;
+        }
+        Object[] unwrapped = args == null ? null : (Object[]) unwrap(args);
+        if (!Profiler.isRecording()) {
+            return wrapResult(method, call(method, unwrapped));
+        }
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        try (Span ignored = Profiler.start(categoryOf(method), name)) {
+            return wrapResult(method, call(method, unwrapped));
+        }
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object wrapResult(Method method, Object result) {
+        if (result == null) {
+            return null;
+        }
+        if (result == driver) {
+            return root;
+        }
+        if (result instanceof WebElement element) {
+            return wrap(element, element.getClass());
+        }
+        if (result instanceof List<?> list && method.getReturnType() == List.class) {
+            List<Object> wrapped = new ArrayList<>(list.size());
+            for (Object item : list) {
+                wrapped.add(item instanceof WebElement element ? wrap(element, element.getClass()) : item);
+            }
+            return wrapped;
+        }
+        Class<?> type = method.getReturnType();
+        return WRAPPED_RESULTS.contains(type) && type.isInterface() ? wrap(result, type) : result;
+    }
+
+    private Object wrap(Object value, Class<?> type) {
+        Class<?>[] interfaces = type.isInterface() ? new Class<?>[]{type} : INTERFACES.get(type);
+        return Proxy.newProxyInstance(classLoaderOf(value), interfaces, new TimedDriver(value, driver, root));
+    }
+
+    private static ClassLoader classLoaderOf(Object value) {
+        ClassLoader loader = value.getClass().getClassLoader();
+        return loader != null ? loader : TimedDriver.class.getClassLoader();
+    }
+
+    private static Object unwrap(Object value) {
+        if (value != null && Proxy.isProxyClass(value.getClass())
+                && Proxy.getInvocationHandler(value) instanceof TimedDriver handler) {
+            return handler.target;
+        }
+        // Keeps the array's type, e.g. CharSequence[] for sendKeys
+        if (value instanceof Object[] array) {
+            Object[] unwrapped = (Object[]) Array.newInstance(array.getClass().getComponentType(), array.length);
+            for (int i = 0; i < array.length; i++) {
+                unwrapped[i] = unwrap(array[i]);
+            }
+            return unwrapped;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(TimedDriver::unwrap).toList();
+        }
+        return value;
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> interfaces) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Class<?> implemented : current.getInterfaces()) {
+                if (interfaces.add(implemented)) {
+                    collectInterfaces(implemented, interfaces);
+                }
+            }
+        }
+    }
+
+    private static String categoryOf(Method method) {
+        if (method.getDeclaringClass() == Alert.class || "alert".equals(method.getName())) {
+            return Profiler.ALERT;
+        }
+        if (NAVIGATION_METHODS.contains(method.getName())) {
+            return Profiler.NAVIGATION;
+        }
+        return Profiler.COMMAND;
+    }
+}
@@ -0,0 +1,296 @@
+package com.solvd.testng.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * In-process stand-in for demoblaze.com. It serves pages with the same DOM the page objects target and
+ * keeps users, tokens, carts and orders in memory, so the suite can run without network access and at
+ * a much higher thread count. The API mirrors api.demoblaze.com under /api/.
+ */
+public class DemoStoreServer implements AutoCloseable {
+
+    private static final List<String> PAGES = List.of("index.html", "prod.html", "cart.html", "store.js", "store.css");
+    private static final Json JSON = new Json();
+
+    private record Product(int id, String title, int price, String cat, String desc) {
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", id);
+            json.put("title", title);
+            json.put("price", price);
+            json.put("cat", cat);
+            json.put("desc", desc);
+            json.put("img", "imgs/" + id + ".jpg");
+            return json;
+        }
+    }
+
+    private record CartItem(String id, String cookie, int productId) {
+    }
+
+    private static final List<Product> CATALOG = List.of(
+            new Product(1, "Samsung galaxy s6", 360, "phone", "The Samsung Galaxy S6 is powered by 1.5GHz octa-core processor."),
+            new Product(2, "Nokia lumia 1520", 820, "phone", "The Nokia Lumia 1520 is powered by 2.2GHz quad-core processor."),
+            new Product(3, "Nexus 6", 650, "phone", "The Motorola Google Nexus 6 is powered by 2.7GHz quad-core processor."),
+            new Product(4, "Samsung galaxy s7", 800, "phone", "The Samsung Galaxy S7 is powered by 1.6GHz octa-core processor."),
+            new Product(5, "Iphone 6 32gb", 790, "phone", "It comes with 1GB of RAM and runs iOS 8."),
+            new Product(6, "Sony xperia z5", 320, "phone", "Sony Xperia Z5 Dual smartphone with a 5.2-inch display."),
+            new Product(7, "HTC One M9", 700, "phone", "The HTC One M9 is powered by 1.5GHz octa-core processor."),
+            new Product(8, "Sony vaio i5", 790, "notebook", "Sony is so confident that the VAIO S is a superior ultraportable laptop."),
+            new Product(9, "Sony vaio i7", 790, "notebook", "REVIEW Sony is so confident that the VAIO S is a superior laptop."));
+
+    private final HttpServer server;
+    private final Map<String, byte[]> pages = new HashMap<>();
+    private final Map<String, String> passwords = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CartItem> cartItems = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong(1_000_000);
+
+    private DemoStoreServer(HttpServer server) {
+        this.server = server;
+        PAGES.forEach(page -> pages.put(page, readResource(page)));
+        server.createContext("/api/", this::handleApi);
+        server.createContext("/", this::handlePage);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public static DemoStoreServer start(int port) {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            DemoStoreServer store = new DemoStoreServer(httpServer);
+            httpServer.start();
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the demo store on port " + port, e);
+        }
+    }
+
+    // One server per JVM, stopped when the JVM exits
+    public static DemoStoreServer startShared() {
+        DemoStoreServer store = start(Integer.getInteger("store.port", 0));
+        Runtime.getRuntime().addShutdownHook(new Thread(store::close));
+        return store;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handlePage(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(1);
+        byte[] page = pages.get(path.isEmpty() ? "index.html" : path);
+        if (page == null) {
+            send(exchange, 404, "text/plain", new byte[0]);
+            return;
+        }
+        send(exchange, 200, contentTypeOf(path), page);
+    }
+
+    private void handleApi(HttpExchange exchange) throws IOException {
+        if ("OPTIONS".equals(exchange.getRequestMethod())) {
+            send(exchange, 204, "text/plain", new byte[0]);
+            return;
+        }
+        String endpoint = exchange.getRequestURI().getPath().substring("/api/".length());
+        Object response;
+        try {
+            response = respond(endpoint, readBody(exchange));
+        } catch (JsonException | IllegalArgumentException | ClassCastException e) {
+            // Anything thrown out of the handler would drop the connection without an answer. Selenium's
+            // exceptions append build and system info, the first line is the message
+            String message = String.valueOf(e.getMessage()).lines().findFirst().orElse("");
+            send(exchange, 400, "application/json",
+                    JSON.toJson(Map.of("errorMessage", "Bad request: " + message)).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        if (response == null) {
+            send(exchange, 404, "application/json", "{\"errorMessage\":\"Not found\"}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        send(exchange, 200, "application/json", JSON.toJson(response).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object respond(String endpoint, Map<String, Object> request) {
+        return switch (endpoint) {
+            case "entries" -> Map.of("Items", CATALOG.stream().map(Product::toJson).toList());
+            case "view" -> view(request);
+            case "signup" -> signUp(request);
+            case "login" -> login(request);
+            case "check" -> check(request);
+            case "addtocart" -> addToCart(request);
+            case "viewcart" -> viewCart(request);
+            case "deleteitem" -> deleteItem(request);
+            case "deletecart" -> deleteCart(request);
+            case "order" -> order(request);
+            default -> null;
+        };
+    }
+
+    private Object view(Map<String, Object> request) {
+        return product(Integer.parseInt(required(request, "id")))
+                .<Object>map(Product::toJson)
+                .orElse(Map.of("errorMessage", "Product not found."));
+    }
+
+    private Object signUp(Map<String, Object> request) {
+        String username = required(request, "username");
+        if (passwords.putIfAbsent(username, required(request, "password")) != null) {
+            return Map.of("errorMessage", "This user already exist.");
+        }
+        return "";
+    }
+
+    // Unknown accounts are registered on their first login, so any test user works out of the box
+    private Object login(Map<String, Object> request) {
+        String username = required(request, "username");
+        String password = required(request, "password");
+        String known = passwords.putIfAbsent(username, password);
+        if (known != null && !known.equals(password)) {
+            return Map.of("errorMessage", "Wrong password.");
+        }
+        String token = Base64.getEncoder().encodeToString((username + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        tokens.put(token, username);
+        return "Auth_token: " + token;
+    }
+
+    private Object check(Map<String, Object> request) {
+        String username = tokens.get(required(request, "token"));
+        if (username == null) {
+            return Map.of("errorMessage", "Token has expired.");
+        }
+        return Map.of("Item", Map.of("username", username));
+    }
+
+    private Object addToCart(Map<String, Object> request) {
+        String id = required(request, "id");
+        cartItems.put(id, new CartItem(id, cartOwner(request), Integer.parseInt(required(request, "prod_id"))));
+        return "";
+    }
+
+    private Object viewCart(Map<String, Object> request) {
+        String owner = cartOwner(request);
+        return Map.of("Items", cartItems.values().stream()
+                .filter(item -> item.cookie().equals(owner))
+                .map(item -> Map.of("id", item.id(), "cookie", item.cookie(), "prod_id", item.productId()))
+                .toList());
+    }
+
+    private Object deleteItem(Map<String, Object> request) {
+        cartItems.remove(required(request, "id"));
+        return "Item deleted.";
+    }
+
+    private Object deleteCart(Map<String, Object> request) {
+        String owner = cartOwner(request);
+        cartItems.values().removeIf(item -> item.cookie().equals(owner));
+        return "Item deleted.";
+    }
+
+    // addtocart takes any prod_id, so an unknown one only shows up here; the cart is left as it was
+    private Object order(Map<String, Object> request) {
+        String owner = cartOwner(request);
+        List<CartItem> items = cartItems.values().stream()
+                .filter(item -> item.cookie().equals(owner))
+                .toList();
+        int amount = 0;
+        for (CartItem item : items) {
+            Optional<Product> product = product(item.productId());
+            if (product.isEmpty()) {
+                return Map.of("errorMessage", "Product not found.");
+            }
+            amount += product.get().price();
+        }
+        items.forEach(item -> cartItems.remove(item.id()));
+        return Map.of("id", orderIds.incrementAndGet(), "amount", amount);
+    }
+
+    private static Optional<Product> product(int id) {
+        return CATALOG.stream()
+                .filter(product -> product.id() == id)
+                .findFirst();
+    }
+
+    // Logged-in carts are keyed by user name, anonymous ones by the random cookie the page generates
+    private String cartOwner(Map<String, Object> request) {
+        String cookie = String.valueOf(request.get("cookie"));
+        if (Boolean.TRUE.equals(request.get("flag"))) {
+            String username = tokens.get(cookie);
+            return username != null ? username : cookie;
+        }
+        return cookie;
+    }
+
+    // Numbers arrive as JSON numbers or strings, depending on the page
+    private static String required(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + field);
+        }
+        return String.valueOf(value);
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            String json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            return json.isBlank() ? Map.of() : JSON.toType(json, Json.MAP_TYPE);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String contentTypeOf(String path) {
+        if (path.endsWith(".js")) {
+            return "application/javascript";
+        }
+        if (path.endsWith(".css")) {
+            return "text/css";
+        }
+        return "text/html; charset=utf-8";
+    }
+
+    private static byte[] readResource(String name) {
+        try (InputStream in = DemoStoreServer.class.getResourceAsStream("/demostore/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing demo store resource " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
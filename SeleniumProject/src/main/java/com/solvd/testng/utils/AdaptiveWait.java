@@ -0,0 +1,90 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/*
+ * Explicit wait for a named condition, used instead of new WebDriverWait(driver, Duration.ofSeconds(10)).
+ * The polling interval starts small and doubles on every miss, and both it and the timeout come from the
+ * latencies this condition showed before (see WaitLatencies). Missing elements are retried like in
+ * WebDriverWait, since drivers no longer have an implicit wait. Checks that are expected to fail often get a
+ * short fixed timeout instead, so their misses do not stretch the condition's timeout.
+ */
+@SuppressWarnings("try")
+public class AdaptiveWait {
+
+    private final WebDriver driver;
+    private final String condition;
+    private String message;
+    private Duration fixedTimeout;
+
+    private AdaptiveWait(WebDriver driver, String condition) {
+        this.driver = driver;
+        this.condition = condition;
+    }
+
+    public static AdaptiveWait on(WebDriver driver, String condition) {
+        return new AdaptiveWait(driver, condition);
+    }
+
+    public AdaptiveWait withMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    public AdaptiveWait withFixedTimeout(Duration timeout) {
+        this.fixedTimeout = timeout;
+        return this;
+    }
+
+    public <T> T until(Function<? super WebDriver, T> isTrue) {
+        boolean learned = fixedTimeout == null;
+        WaitLatencies.Policy policy = learned ? WaitLatencies.policyFor(condition) : WaitLatencies.fixed(fixedTimeout);
+        long start = System.nanoTime();
+        long deadline = start + policy.timeout().toNanos();
+        long pollNanos = policy.initialPoll().toNanos();
+        RuntimeException lastError = null;
+        try (Span ignored = Profiler.start(Profiler.WAIT, condition)) {
+            while (true) {
+                try {
+                    T value = isTrue.apply(driver);
+                    if (value != null && !Boolean.FALSE.equals(value)) {
+                        if (learned) {
+                            WaitLatencies.record(condition, System.nanoTime() - start);
+                        }
+                        return value;
+                    }
+                    lastError = null;
+                } catch (NotFoundException | StaleElementReferenceException e) {
+                    lastError = e;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    if (learned) {
+                        WaitLatencies.recordTimeout(condition, policy.timeout());
+                    }
+                    throw new TimeoutException(describeTimeout(policy.timeout()), lastError);
+                }
+                LockSupport.parkNanos(Math.min(pollNanos, remaining));
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new TimeoutException("Interrupted while waiting for " + condition, lastError);
+                }
+                pollNanos = Math.min(pollNanos * 2, policy.maxPoll().toNanos());
+            }
+        }
+    }
+
+    private String describeTimeout(Duration timeout) {
+        String waited = "Waited " + timeout.toMillis() + " ms for " + condition;
+        return message == null ? waited : message + " (" + waited + ")";
+    }
+}
@@ -0,0 +1,196 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Static assets on disk, shared by every session and every run (-Dnetwork.cacheDir, target/asset-cache by
+ * default). Bodies are stored once under objects/<sha-256 of the body>, and urls/<sha-256 of the key> points at
+ * the body together with the response headers worth replaying, when it was stored and how long the first
+ * download took. An entry is fresh for the response's max-age, or -Dnetwork.cacheMaxAgeMinutes (60) when it
+ * names none; after that it is revalidated with its ETag or Last-Modified, or downloaded again.
+ */
+@Slf4j
+class AssetCache {
+
+    static final AssetCache SHARED = new AssetCache(Path.of(System.getProperty("network.cacheDir", "target/asset-cache")));
+
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(Long.getLong("network.cacheMaxAgeMinutes", 60));
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|,)\\s*max-age\\s*=\\s*\"?(\\d+)");
+    private static final String HEADER = "header.";
+
+    record Entry(Map<String, String> headers, byte[] body, long fetchNanos, long storedAt, long maxAgeMillis) {
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - storedAt < maxAgeMillis;
+        }
+
+        Optional<String> header(String name) {
+            return Optional.ofNullable(headers.get(name));
+        }
+    }
+
+    private record Pointer(String object, Map<String, String> headers, long fetchNanos, long storedAt,
+                           long maxAgeMillis) {
+    }
+
+    private final Path objects;
+    private final Path urls;
+    private final Map<String, Pointer> pointers = new ConcurrentHashMap<>();
+
+    private AssetCache(Path directory) {
+        this.objects = directory.resolve("objects");
+        this.urls = directory.resolve("urls");
+        try {
+            Files.createDirectories(objects);
+            Files.createDirectories(urls);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the asset cache in " + directory, e);
+        }
+    }
+
+    // Fresh or not; a stale entry is still worth revalidating
+    Optional<Entry> get(String key) {
+        Pointer pointer = pointers.computeIfAbsent(sha256(key.getBytes(StandardCharsets.UTF_8)), this::readPointer);
+        if (pointer == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new Entry(pointer.headers(), Files.readAllBytes(objects.resolve(pointer.object())),
+                    pointer.fetchNanos(), pointer.storedAt(), pointer.maxAgeMillis()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    void put(String key, Map<String, String> headers, byte[] body, long fetchNanos) {
+        String object = sha256(body);
+        try {
+            Path blob = objects.resolve(object);
+            if (!Files.exists(blob)) {
+                writeAtomically(blob, body);
+            }
+            store(key, new Pointer(object, caseInsensitive(headers), fetchNanos, System.currentTimeMillis(),
+                    maxAgeMillis(headers)));
+        } catch (IOException e) {
+            log.warn("Could not cache {}: {}", key, e.getMessage());
+        }
+    }
+
+    // The server answered 304: the body stays, the headers it sent again replace the stored ones
+    Entry revalidated(String key, Entry entry, Map<String, String> headers) {
+        Map<String, String> merged = caseInsensitive(entry.headers());
+        merged.putAll(headers);
+        Entry refreshed = new Entry(merged, entry.body(), entry.fetchNanos(), System.currentTimeMillis(),
+                maxAgeMillis(merged));
+        try {
+            store(key, new Pointer(sha256(entry.body()), merged, entry.fetchNanos(), refreshed.storedAt(),
+                    refreshed.maxAgeMillis()));
+        } catch (IOException e) {
+            log.warn("Could not refresh {}: {}", key, e.getMessage());
+        }
+        return refreshed;
+    }
+
+    private void store(String key, Pointer pointer) throws IOException {
+        String file = sha256(key.getBytes(StandardCharsets.UTF_8));
+        Properties properties = new Properties();
+        properties.setProperty("object", pointer.object());
+        properties.setProperty("fetchNanos", String.valueOf(pointer.fetchNanos()));
+        properties.setProperty("storedAt", String.valueOf(pointer.storedAt()));
+        properties.setProperty("maxAgeMillis", String.valueOf(pointer.maxAgeMillis()));
+        pointer.headers().forEach((name, value) -> properties.setProperty(HEADER + name, value));
+        Path temp = Files.createTempFile(urls, file, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, key);
+        }
+        move(temp, urls.resolve(file));
+        pointers.put(file, pointer);
+    }
+
+    // computeIfAbsent does not store nulls, so a miss is looked up on disk again next time. Entries written
+    // before the headers were kept have no storedAt and count as stale
+    private Pointer readPointer(String file) {
+        Path path = urls.resolve(file);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            Map<String, String> headers = caseInsensitive(Map.of());
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(HEADER)) {
+                    headers.put(name.substring(HEADER.length()), properties.getProperty(name));
+                }
+            }
+            return new Pointer(properties.getProperty("object"), headers,
+                    Long.parseLong(properties.getProperty("fetchNanos", "0")),
+                    Long.parseLong(properties.getProperty("storedAt", "0")),
+                    Long.parseLong(properties.getProperty("maxAgeMillis", "0")));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // no-cache allows storing but every use is revalidated; no-store never reaches the cache
+    private static long maxAgeMillis(Map<String, String> headers) {
+        String cacheControl = caseInsensitive(headers).getOrDefault("Cache-Control", "").toLowerCase(Locale.ROOT);
+        if (cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        return maxAge.find() ? TimeUnit.SECONDS.toMillis(Long.parseLong(maxAge.group(1))) : DEFAULT_MAX_AGE.toMillis();
+    }
+
+    private static Map<String, String> caseInsensitive(Map<String, String> headers) {
+        Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        copy.putAll(headers);
+        return copy;
+    }
+
+    // Sessions of several JVMs may write the same object at once, so they never see a half-written file
+    private void writeAtomically(Path target, byte[] body) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(temp, body);
+        move(temp, target);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.AbstractDriverOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Capability presets, picked with the browser parameter as <browser>:<preset>, e.g. chrome:lean.
+ *   default  - a visible, maximized window, as before
+ *   headless - new headless mode with a fixed viewport (-Dbrowser.viewport, 1366x768 by default)
+ *   lean     - headless plus no images, reduced motion, no requests to hosts other than the store's,
+ *              a disk cache of its own per session and the background services turned off
+ */
+public enum BrowserPreset {
+
+    DEFAULT(false, false),
+    HEADLESS(true, false),
+    LEAN(true, true);
+
+    private static final String VIEWPORT = System.getProperty("browser.viewport", "1366x768");
+    private static final Path CACHE_DIR = Path.of(System.getProperty("browser.cacheDir", "target/browser-cache"));
+    private static final AtomicInteger cacheDirs = new AtomicInteger();
+
+    private static final List<String> CHROMIUM_LEAN_FLAGS = List.of(
+            "--disable-extensions",
+            "--disable-gpu",
+            "--disable-dev-shm-usage",
+            "--disable-background-networking",
+            "--disable-component-update",
+            "--disable-default-apps",
+            "--disable-sync",
+            "--disable-notifications",
+            "--disable-client-side-phishing-detection",
+            "--disable-domain-reliability",
+            "--disable-breakpad",
+            "--disable-features=Translate,OptimizationHints,MediaRouter,CalculateNativeWinOcclusion",
+            // Pooled windows sit in the background between leases, and their timers must not be throttled
+            "--disable-renderer-backgrounding",
+            "--disable-background-timer-throttling",
+            "--disable-backgrounding-occluded-windows",
+            "--no-first-run",
+            "--no-default-browser-check",
+            "--metrics-recording-only",
+            "--mute-audio",
+            "--blink-settings=imagesEnabled=false",
+            "--force-prefers-reduced-motion");
+
+    private static final Map<String, Object> FIREFOX_LEAN_PREFERENCES = Map.ofEntries(
+            Map.entry("permissions.default.image", 2),
+            Map.entry("ui.prefersReducedMotion", 1),
+            Map.entry("toolkit.cosmeticAnimations.enabled", false),
+            Map.entry("network.cookie.cookieBehavior", 1),
+            Map.entry("network.prefetch-next", false),
+            Map.entry("network.dns.disablePrefetch", true),
+            Map.entry("browser.shell.checkDefaultBrowser", false),
+            Map.entry("browser.newtabpage.enabled", false),
+            Map.entry("browser.safebrowsing.malware.enabled", false),
+            Map.entry("browser.safebrowsing.phishing.enabled", false),
+            Map.entry("app.update.auto", false),
+            Map.entry("extensions.update.enabled", false),
+            Map.entry("datareporting.healthreport.uploadEnabled", false),
+            Map.entry("datareporting.policy.dataSubmissionEnabled", false),
+            Map.entry("toolkit.telemetry.enabled", false));
+
+    private final boolean headless;
+    private final boolean lean;
+
+    BrowserPreset(boolean headless, boolean lean) {
+        this.headless = headless;
+        this.lean = lean;
+    }
+
+    public static BrowserPreset of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Browser preset not supported: " + name);
+        }
+    }
+
+    public AbstractDriverOptions<?> options(String browser) {
+        return switch (browser) {
+            case "chrome" -> chromeOptions();
+            case "firefox" -> firefoxOptions();
+            case "edge" -> edgeOptions();
+            default -> throw new IllegalArgumentException("Browser not supported: " + browser);
+        };
+    }
+
+    public ChromeOptions chromeOptions() {
+        return chromium(new ChromeOptions(), "chrome");
+    }
+
+    public EdgeOptions edgeOptions() {
+        return chromium(new EdgeOptions(), "edge");
+    }
+
+    public FirefoxOptions firefoxOptions() {
+        FirefoxOptions options = new FirefoxOptions();
+        if (headless) {
+            String[] size = VIEWPORT.split("x");
+            options.addArguments("-headless", "--width=" + size[0], "--height=" + size[1]);
+        }
+        if (lean) {
+            FIREFOX_LEAN_PREFERENCES.forEach(options::addPreference);
+            options.addPreference("browser.cache.disk.parent_directory", newCacheDir("firefox"));
+            // Firefox has no host resolver rules, so other hosts are sent to a proxy that does not exist
+            options.addPreference("network.proxy.type", 2);
+            options.addPreference("network.proxy.autoconfig_url", "data:application/x-ns-proxy-autoconfig,"
+                    + URLEncoder.encode(proxyAutoConfig(), StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return options;
+    }
+
+    // Headless windows already have the configured size, only a visible one is stretched to the screen
+    public void prepareWindow(WebDriver driver) {
+        if (!headless) {
+            driver.manage().window().maximize();
+        }
+    }
+
+    private <T extends ChromiumOptions<?>> T chromium(T options, String browser) {
+        // The console is kept so failed tests can save it, see FailureArtifacts
+        LoggingPreferences logging = new LoggingPreferences();
+        logging.enable(LogType.BROWSER, Level.ALL);
+        options.setCapability("edge".equals(browser) ? EdgeOptions.LOGGING_PREFS : ChromeOptions.LOGGING_PREFS, logging);
+        if (headless) {
+            options.addArguments("--headless=new", "--window-size=" + VIEWPORT.replace('x', ','));
+        }
+        if (lean) {
+            options.addArguments(CHROMIUM_LEAN_FLAGS);
+            options.addArguments("--disk-cache-dir=" + newCacheDir(browser));
+            options.addArguments("--host-resolver-rules=MAP * ~NOTFOUND"
+                    + allowedHosts().stream().map(host -> " , EXCLUDE " + host).collect(Collectors.joining()));
+            options.setExperimentalOption("prefs", Map.of(
+                    "profile.managed_default_content_settings.images", 2,
+                    "profile.block_third_party_cookies", true));
+        }
+        return options;
+    }
+
+    private static String proxyAutoConfig() {
+        String allowed = allowedHosts().stream()
+                .map(host -> "'" + host + "'")
+                .collect(Collectors.joining(","));
+        return "function FindProxyForURL(url, host) { return [" + allowed + "].indexOf(host) >= 0"
+                + " ? 'DIRECT' : 'PROXY 127.0.0.1:9'; }";
+    }
+
+    // The store's own hosts, plus any listed in -Dbrowser.allowedHosts
+    private static Set<String> allowedHosts() {
+        Set<String> hosts = new LinkedHashSet<>(List.of("localhost", "127.0.0.1"));
+        hosts.add(URI.create(StoreConfig.baseUrl()).getHost());
+        hosts.add(URI.create(StoreConfig.apiUrl()).getHost());
+        for (String host : System.getProperty("browser.allowedHosts", "").split(",")) {
+            if (!host.isBlank()) {
+                hosts.add(host.trim());
+            }
+        }
+        return hosts;
+    }
+
+    // Browsers lock their disk cache, so concurrent sessions cannot share one. Each session gets
+    // <cacheDir>/<browser>/<pid>-<n>, which the browser creates itself; directories of JVMs that are gone are
+    // removed when the first one of this JVM is handed out
+    private static String newCacheDir(String browser) {
+        if (cacheDirs.get() == 0) {
+            removeStaleCacheDirs();
+        }
+        return CACHE_DIR.resolve(browser).resolve(ProcessHandle.current().pid() + "-" + cacheDirs.incrementAndGet())
+                .toAbsolutePath().toString();
+    }
+
+    private static synchronized void removeStaleCacheDirs() {
+        if (!Files.isDirectory(CACHE_DIR) || cacheDirs.get() > 0) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.list(CACHE_DIR).filter(Files::isDirectory).flatMap(BrowserPreset::list)) {
+            dirs.filter(dir -> !isOwnerAlive(dir)).forEach(BrowserPreset::delete);
+        } catch (IOException | UncheckedIOException e) {
+            // Left for the next run
+        }
+    }
+
+    private static boolean isOwnerAlive(Path dir) {
+        String name = dir.getFileName().toString();
+        int dash = name.indexOf('-');
+        try {
+            return ProcessHandle.of(Long.parseLong(dash < 0 ? name : name.substring(0, dash))).isPresent();
+        } catch (NumberFormatException e) {
+            // Not one of ours, e.g. the directory shared by all sessions before
+            return false;
+        }
+    }
+
+    private static Stream<Path> list(Path dir) {
+        try {
+            return Files.list(dir).filter(Files::isDirectory).toList().stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException | UncheckedIOException e) {
+            // Left for the next run
+        }
+    }
+}
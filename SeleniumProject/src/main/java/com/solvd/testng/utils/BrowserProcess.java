@@ -0,0 +1,87 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/*
+ * Finds the OS process behind a local browser session and measures it together with all its children
+ * (renderers, GPU and network services). Firefox reports its pid in the capabilities; Chrome and Edge
+ * report their profile directory, which is matched against the command lines of this JVM's descendants.
+ * RSS is read from /proc, so it is only available on Linux. Only sessions of the local backend are looked
+ * up, see PooledSession; a remote Firefox reports the pid it has on the grid node.
+ */
+class BrowserProcess {
+
+    record Usage(long rssBytes, Duration cpu) {
+    }
+
+    private final ProcessHandle root;
+
+    private BrowserProcess(ProcessHandle root) {
+        this.root = root;
+    }
+
+    static Optional<BrowserProcess> of(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities hasCapabilities)) {
+            return Optional.empty();
+        }
+        Capabilities capabilities = hasCapabilities.getCapabilities();
+        if (capabilities.getCapability("moz:processID") instanceof Number pid) {
+            return ProcessHandle.of(pid.longValue()).map(BrowserProcess::new);
+        }
+        String profile = chromiumProfile(capabilities.getCapability("chrome"));
+        if (profile == null) {
+            profile = chromiumProfile(capabilities.getCapability("msedge"));
+        }
+        if (profile == null) {
+            return Optional.empty();
+        }
+        String marker = "--user-data-dir=" + profile;
+        return ProcessHandle.current().descendants()
+                .filter(process -> process.info().commandLine()
+                        .filter(line -> line.contains(marker) && !line.contains("--type="))
+                        .isPresent())
+                .findFirst()
+                .map(BrowserProcess::new);
+    }
+
+    Usage measure() {
+        long rss = 0;
+        Duration cpu = Duration.ZERO;
+        List<ProcessHandle> processes = Stream.concat(Stream.of(root), root.descendants()).toList();
+        for (ProcessHandle process : processes) {
+            rss += residentBytes(process.pid());
+            cpu = cpu.plus(process.info().totalCpuDuration().orElse(Duration.ZERO));
+        }
+        return new Usage(rss, cpu);
+    }
+
+    private static String chromiumProfile(Object browserInfo) {
+        if (browserInfo instanceof Map<?, ?> info && info.get("userDataDir") instanceof String dir) {
+            return dir;
+        }
+        return null;
+    }
+
+    private static long residentBytes(long pid) {
+        try (Stream<String> lines = Files.lines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .findFirst()
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                    .orElse(0L);
+        } catch (IOException | RuntimeException e) {
+            // Not on Linux, or the process exited while it was being measured
+            return 0;
+        }
+    }
+}
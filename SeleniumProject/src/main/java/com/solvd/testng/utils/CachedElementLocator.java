@@ -0,0 +1,73 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.List;
+
+// Keeps what a field resolved to until the DOM generation changes or the element goes stale
+class CachedElementLocator implements ElementLocator {
+
+    private static final long UNRESOLVED = -1;
+
+    private final WebDriver driver;
+    private final By by;
+    private WebElement element;
+    private List<WebElement> elements;
+    private long generation = UNRESOLVED;
+
+    CachedElementLocator(WebDriver driver, By by) {
+        this.driver = driver;
+        this.by = by;
+    }
+
+    @Override
+    public WebElement findElement() {
+        if (element == null || !isCurrent()) {
+            element = driver.findElement(by);
+            elements = null;
+            generation = DomGeneration.current(driver);
+        }
+        return element;
+    }
+
+    // Empty results are not kept, the elements may still be on their way
+    @Override
+    public List<WebElement> findElements() {
+        if (elements == null || !isCurrent()) {
+            List<WebElement> found = driver.findElements(by);
+            element = null;
+            elements = found.isEmpty() ? null : found;
+            generation = DomGeneration.current(driver);
+            return found;
+        }
+        return elements;
+    }
+
+    void seed(List<WebElement> found) {
+        if (found.isEmpty()) {
+            invalidate();
+            return;
+        }
+        elements = found;
+        element = found.get(0);
+        generation = DomGeneration.current(driver);
+    }
+
+    void invalidate() {
+        element = null;
+        elements = null;
+        generation = UNRESOLVED;
+    }
+
+    private boolean isCurrent() {
+        return generation == DomGeneration.current(driver);
+    }
+
+    @Override
+    public String toString() {
+        return "CachedElementLocator '" + by + "'";
+    }
+}
@@ -0,0 +1,81 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.pages.CatalogItem;
+import com.solvd.testng.profiling.Profiler;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Builds and clears carts through the store's cart endpoints instead of clicking through product pages.
+ * The requests are sent from the page itself with fetch, so they carry the logged-in user's token and
+ * all of them run in parallel within a single WebDriver round trip. The browser has to be on a store page.
+ */
+public class CartFixture {
+
+    private static final String CART_SCRIPT = """
+            var api = arguments[0], action = arguments[1], productIds = arguments[2];
+            var done = arguments[arguments.length - 1];
+            function cookie(name) {
+                var match = document.cookie.match(new RegExp('(?:^|; )' + name + '=([^;]*)'));
+                return match ? decodeURIComponent(match[1]) : null;
+            }
+            function randomId() {
+                return window.crypto && window.crypto.randomUUID
+                    ? window.crypto.randomUUID()
+                    : Date.now().toString(16) + '-' + Math.random().toString(16).slice(2);
+            }
+            function post(endpoint, body) {
+                return fetch(api + endpoint, {
+                    method: 'POST',
+                    headers: { 'Content-Type': 'application/json' },
+                    body: JSON.stringify(body)
+                }).then(function (response) {
+                    if (!response.ok) {
+                        throw new Error(endpoint + ' returned ' + response.status);
+                    }
+                    return response.text();
+                });
+            }
+            var token = cookie('tokenp_');
+            var owner = token ? { cookie: token, flag: true } : { cookie: cookie('user'), flag: false };
+            if (!owner.cookie) {
+                done({ error: 'No logged-in user or cart cookie on ' + location.href });
+                return;
+            }
+            var work = action === 'add'
+                ? Promise.all(productIds.map(function (productId) {
+                    return post('addtocart', { id: randomId(), cookie: owner.cookie, prod_id: productId, flag: owner.flag });
+                }))
+                : post('viewcart', owner).then(function (text) {
+                    return Promise.all(JSON.parse(text).Items.map(function (item) {
+                        return post('deleteitem', { id: item.id });
+                    }));
+                });
+            work.then(function (results) { done({ count: results.length }); },
+                      function (error) { done({ error: String(error) }); });
+            """;
+
+    private CartFixture() {
+    }
+
+    public static List<CatalogItem> addProducts(WebDriver driver, List<CatalogItem> products) {
+        run(driver, "add", products.stream().map(CatalogItem::productId).toList());
+        return products;
+    }
+
+    public static void clear(WebDriver driver) {
+        run(driver, "clear", List.of());
+    }
+
+    private static void run(WebDriver driver, String action, List<Integer> productIds) {
+        Object result = Profiler.time(Profiler.STEP, "CartFixture." + action, () -> ((JavascriptExecutor) driver)
+                .executeAsyncScript(CART_SCRIPT, StoreConfig.apiUrl(), action, productIds));
+        Map<?, ?> outcome = (Map<?, ?>) result;
+        if (outcome.get("error") != null) {
+            throw new IllegalStateException("Cart fixture '" + action + "' failed: " + outcome.get("error"));
+        }
+    }
+}
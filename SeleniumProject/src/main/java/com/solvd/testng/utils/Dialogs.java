@@ -0,0 +1,63 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+
+/*
+ * Native alert, confirm and prompt dialogs without polling for them. expect() replaces the three functions
+ * in the current document with a hook that accepts the dialog at once (confirm answers true, prompt its
+ * default) and records its message; PendingDialog.await() then waits in the page, see PageEvents, for the
+ * first dialog after expect(). The hook stays until the next page load, so later dialogs of that page are
+ * accepted and recorded as well instead of blocking the browser.
+ */
+public class Dialogs {
+
+    private static final String INSTALL_SCRIPT = """
+            var changeEvent = arguments[0];
+            if (!window.__dialogs) {
+                window.__dialogs = [];
+                var record = function (type, message, answer) {
+                    window.__dialogs.push({ type: type, message: String(message === undefined ? '' : message) });
+                    window.dispatchEvent(new Event(changeEvent));
+                    return answer;
+                };
+                window.alert = function (message) { record('alert', message, undefined); };
+                window.confirm = function (message) { return record('confirm', message, true); };
+                window.prompt = function (message, value) { return record('prompt', message, value === undefined ? '' : value); };
+            }
+            return window.__dialogs.length;
+            """;
+    private static final String NEXT_DIALOG_CHECK =
+            "return window.__dialogs && window.__dialogs.length > args.seen ? window.__dialogs[args.seen] : null;";
+
+    public record Dialog(String type, String message) {
+    }
+
+    // The hook has to be in place before the action that opens the dialog, so call this first
+    public static PendingDialog expect(WebDriver driver, String condition) {
+        long seen = ((Number) ((JavascriptExecutor) driver).executeScript(INSTALL_SCRIPT, PageEvents.CHANGE_EVENT)).longValue();
+        return new PendingDialog(driver, condition, seen);
+    }
+
+    public static class PendingDialog {
+
+        private final WebDriver driver;
+        private final String condition;
+        private final long seen;
+
+        private PendingDialog(WebDriver driver, String condition, long seen) {
+            this.driver = driver;
+            this.condition = condition;
+            this.seen = seen;
+        }
+
+        // The dialog has already been accepted by the time this returns
+        public Dialog await() {
+            Map<?, ?> dialog = (Map<?, ?>) PageEvents.await(driver, condition, "The dialog was not shown!",
+                    NEXT_DIALOG_CHECK, Map.of("seen", seen));
+            return new Dialog((String) dialog.get("type"), (String) dialog.get("message"));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counter per browser session that moves forward whenever the page objects load or rebuild the DOM
+public class DomGeneration {
+
+    private static final Map<WebDriver, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public static long current(WebDriver driver) {
+        return generations.computeIfAbsent(driver, key -> new AtomicLong()).get();
+    }
+
+    public static void advance(WebDriver driver) {
+        generations.computeIfAbsent(driver, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public static void forget(WebDriver driver) {
+        generations.remove(driver);
+    }
+}
@@ -0,0 +1,35 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.ServiceLoader;
+
+/*
+ * Where DriverPool gets its browsers from. Implementations are found with ServiceLoader
+ * (META-INF/services/com.solvd.testng.utils.DriverBackend) and picked by name with -Ddriver.backend:
+ * "local" (the default) starts browsers on this machine, "grid" asks Selenium Grid endpoints for them.
+ * The pool decorates and prepares whatever create returns, so a backend only starts the session.
+ */
+public interface DriverBackend {
+
+    WebDriver create(String browser, BrowserPreset preset);
+
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    // Whether the browsers run on this machine, so their processes can be measured
+    default boolean isLocal() {
+        return false;
+    }
+
+    static DriverBackend load() {
+        String name = System.getProperty("driver.backend", "local");
+        for (DriverBackend backend : ServiceLoader.load(DriverBackend.class)) {
+            if (backend.name().equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+        throw new IllegalArgumentException("Driver backend not found: " + name);
+    }
+}
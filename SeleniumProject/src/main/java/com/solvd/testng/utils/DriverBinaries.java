@@ -0,0 +1,129 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Driver and browser binaries resolved ahead of the run by DriverBootstrap and listed in the manifest
+ * <drivers.dir>/manifest.properties (drivers/ by default). For each browser it holds the driver's path relative
+ * to the directory, the browser's absolute path, their versions, sizes and SHA-256 sums. An entry is checked
+ * once per run, on first use: both files must still have the recorded size, and with -Ddrivers.verify=true
+ * also the recorded checksum. A run that only reads the manifest needs no network and no version lookups.
+ */
+@Slf4j
+public class DriverBinaries {
+
+    static final Path DIR = Path.of(System.getProperty("drivers.dir", "drivers"));
+    static final Path MANIFEST = DIR.resolve("manifest.properties");
+    private static final boolean VERIFY = Boolean.getBoolean("drivers.verify");
+
+    // browserBinary is null when the bootstrap found no browser and the driver looks for it itself
+    public record Entry(String browser, Path driver, String driverVersion, Path browserBinary, String browserVersion) {
+    }
+
+    private static final Properties manifest = read();
+    private static final Map<String, Optional<Entry>> checked = new ConcurrentHashMap<>();
+
+    private DriverBinaries() {
+    }
+
+    // With -Ddrivers.offline=true a browser missing from the manifest is an error instead of being resolved online
+    public static boolean isOffline() {
+        return Boolean.getBoolean("drivers.offline");
+    }
+
+    public static Optional<Entry> find(String browser) {
+        return checked.computeIfAbsent(browser, DriverBinaries::check);
+    }
+
+    private static Optional<Entry> check(String browser) {
+        String driverPath = manifest.getProperty(browser + ".driver");
+        if (driverPath == null) {
+            return Optional.empty();
+        }
+        String platform = manifest.getProperty("platform");
+        if (!platform().equals(platform)) {
+            throw new IllegalStateException("The drivers in " + MANIFEST + " are for " + platform + ", this is "
+                    + platform() + ", run DriverBootstrap on this platform");
+        }
+        Path driver = DIR.resolve(driverPath).toAbsolutePath();
+        if (!matches(driver, browser + ".driver")) {
+            throw new IllegalStateException("The " + browser + " driver " + driver + " is missing or changed since "
+                    + "it was listed in " + MANIFEST + ", run DriverBootstrap again");
+        }
+        String browserPath = manifest.getProperty(browser + ".browser");
+        Path browserBinary = browserPath == null ? null : Path.of(browserPath);
+        // An updated browser may still work with the driver, if not the driver says so when the session starts
+        if (browserBinary != null && !matches(browserBinary, browser + ".browser")) {
+            log.warn("{} at {} changed since the drivers were resolved for version {}, run DriverBootstrap again "
+                    + "if sessions fail to start", browser, browserBinary, manifest.getProperty(browser + ".browser.version"));
+        }
+        Entry entry = new Entry(browser, driver, manifest.getProperty(browser + ".driver.version"), browserBinary,
+                manifest.getProperty(browser + ".browser.version"));
+        log.info("Using {} driver {} from {}", browser, entry.driverVersion(), driver);
+        return Optional.of(entry);
+    }
+
+    private static boolean matches(Path file, String key) {
+        try {
+            if (!Files.isRegularFile(file) || Files.size(file) != Long.parseLong(manifest.getProperty(key + ".size", "-1"))) {
+                return false;
+            }
+            return !VERIFY || sha256(file).equals(manifest.getProperty(key + ".sha256"));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static String platform() {
+        return System.getProperty("os.name").toLowerCase().replace(' ', '-') + "/" + System.getProperty("os.arch");
+    }
+
+    static String sha256(Path file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Properties read() {
+        Properties properties = new Properties();
+        if (Files.isRegularFile(MANIFEST)) {
+            try (Reader reader = Files.newBufferedReader(MANIFEST, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read driver manifest " + MANIFEST, e);
+            }
+        }
+        return properties;
+    }
+
+    static void write(Properties properties) {
+        try {
+            Files.createDirectories(DIR);
+            try (Writer writer = Files.newBufferedWriter(MANIFEST, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Driver and browser binaries, written by DriverBootstrap");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write driver manifest " + MANIFEST, e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.solvd.testng.utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * Resolves the driver of each browser given as argument (or in -Dbrowsers, chrome by default) into the drivers
+ * directory and lists it, together with the browser installed on this machine, in the manifest DriverBinaries
+ * reads at run time. Run it once where the driver downloads are reachable (WebDriverManager's wdm.* properties
+ * point it at a mirror), then ship the drivers directory to the build boxes; driver paths in the manifest are
+ * relative to it. Browsers not named keep their earlier entries.
+ */
+@Slf4j
+public class DriverBootstrap {
+
+    private static final Duration VERSION_TIMEOUT = Duration.ofSeconds(10);
+
+    public static void main(String[] args) throws IOException {
+        List<String> browsers = (args.length > 0 ? Arrays.stream(args) : Arrays.stream(System.getProperty("browsers", "chrome").split(",")))
+                .map(browser -> browser.trim().split(":", 2)[0])
+                .filter(browser -> !browser.isEmpty())
+                .distinct()
+                .toList();
+        Properties manifest = DriverBinaries.read();
+        if (!DriverBinaries.platform().equals(manifest.getProperty("platform"))) {
+            manifest.clear();
+        }
+        manifest.setProperty("platform", DriverBinaries.platform());
+        Files.createDirectories(DriverBinaries.DIR);
+        for (String browser : browsers) {
+            resolve(browser, manifest);
+        }
+        DriverBinaries.write(manifest);
+        log.info("Wrote {} for {}", DriverBinaries.MANIFEST.toAbsolutePath(), browsers);
+    }
+
+    private static void resolve(String browser, Properties manifest) throws IOException {
+        WebDriverManager manager = WebDriverManager.getInstance(browser)
+                .cachePath(DriverBinaries.DIR.toAbsolutePath().toString())
+                .avoidResolutionCache();
+        manager.setup();
+        Path driver = Path.of(manager.getDownloadedDriverPath()).toRealPath();
+        manifest.setProperty(browser + ".driver", DriverBinaries.DIR.toRealPath().relativize(driver).toString());
+        manifest.setProperty(browser + ".driver.version", manager.getDownloadedDriverVersion());
+        record(manifest, browser + ".driver", driver);
+
+        Optional<Path> browserBinary = manager.getBrowserPath();
+        manifest.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(browser + ".browser"))
+                .forEach(manifest::remove);
+        if (browserBinary.isPresent()) {
+            // Launchers such as /usr/bin/google-chrome are links, the checksum is of what they point to
+            Path binary = browserBinary.get().toRealPath();
+            manifest.setProperty(browser + ".browser", binary.toString());
+            manifest.setProperty(browser + ".browser.version", versionOf(binary));
+            record(manifest, browser + ".browser", binary);
+            log.info("{}: driver {} at {}, browser {} at {}", browser, manager.getDownloadedDriverVersion(), driver,
+                    manifest.getProperty(browser + ".browser.version"), binary);
+        } else {
+            log.warn("{}: driver {} at {}, no browser found, the driver will look for it when a session starts",
+                    browser, manager.getDownloadedDriverVersion(), driver);
+        }
+    }
+
+    private static void record(Properties manifest, String key, Path file) throws IOException {
+        manifest.setProperty(key + ".size", String.valueOf(Files.size(file)));
+        manifest.setProperty(key + ".sha256", DriverBinaries.sha256(file));
+    }
+
+    // The output is read on its own thread, so a browser that never exits on --version (or opens a window
+    // instead) is killed after the timeout rather than blocking the bootstrap
+    private static String versionOf(Path binary) {
+        Process process;
+        try {
+            process = new ProcessBuilder(binary.toString(), "--version").redirectErrorStream(true).start();
+        } catch (IOException e) {
+            return "unknown";
+        }
+        CompletableFuture<String> output = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            } catch (IOException e) {
+                return "";
+            }
+        });
+        try {
+            if (!process.waitFor(VERSION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("{} --version did not exit within {}s, killed it", binary, VERSION_TIMEOUT.toSeconds());
+                kill(process);
+                return "unknown";
+            }
+            String version = output.get(VERSION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            return version.isEmpty() ? "unknown" : version;
+        } catch (ExecutionException | TimeoutException e) {
+            // A child of the browser can keep the pipe open after the browser itself exited
+            kill(process);
+            return "unknown";
+        } catch (InterruptedException e) {
+            kill(process);
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    // Browsers start helper processes, which would otherwise outlive the bootstrap
+    private static void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+}
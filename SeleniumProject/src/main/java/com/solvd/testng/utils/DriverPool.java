@@ -1,49 +1,104 @@
 package com.solvd.testng.utils;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.solvd.testng.profiling.TimedDriver;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.edge.EdgeDriver;
-import org.openqa.selenium.firefox.FirefoxDriver;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/*
+ * One SessionPool per browser parameter. -Dpool.size bounds the browsers running at once over all of them,
+ * -Dpool.limit.<browser> (e.g. pool.limit.firefox=3, or pool.limit.chrome:lean) bounds a single type.
+ */
+@Slf4j
 public class DriverPool {
 
-    private static ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
-
-    public static WebDriver getDriver(String browser) {
-        if (driverThreadLocal.get() == null) {
-            WebDriver driver;
-            switch (browser.toLowerCase()) {
-                case "chrome":
-                    WebDriverManager.chromedriver().setup();
-                    driver = new ChromeDriver();
-                    break;
-                case "firefox":
-                    WebDriverManager.firefoxdriver().setup();
-                    driver = new FirefoxDriver();
-                    break;
-                case "edge":
-                    WebDriverManager.edgedriver().setup();
-                    driver = new EdgeDriver();
-                    break;
-                default:
-                    throw new IllegalArgumentException("Browser not supported: " + browser);
-            }
-            driver.manage().window().maximize();
-            driver.manage().deleteAllCookies();
-            driver.manage().timeouts().implicitlyWait(10, TimeUnit.SECONDS);
-            driverThreadLocal.set(driver);
-        }
-        return driverThreadLocal.get();
+    private static final int CAPACITY = Integer.getInteger("pool.size", 10);
+    private static final Duration MAX_AGE = Duration.ofMinutes(Long.getLong("pool.maxAgeMinutes", 30));
+    private static final int MAX_LEASES = Integer.getInteger("pool.maxLeases", 50);
+    private static final Duration LEASE_TIMEOUT = Duration.ofSeconds(Long.getLong("pool.leaseTimeoutSeconds", 300));
+
+    private static final SharedCapacity SHARED = new SharedCapacity(CAPACITY);
+    private static final Map<String, SessionPool> pools = new ConcurrentHashMap<>();
+    private static volatile DriverBackend backend = DriverBackend.load();
+
+    public static PooledSession checkout(String browser) {
+        return poolFor(browser).checkout(LEASE_TIMEOUT);
+    }
+
+    // Hands a browser back to the pool so the next test can reuse it
+    public static void release(PooledSession session) {
+        poolFor(session.getBrowser()).release(session);
+    }
+
+    // Throws a leased browser away instead of returning it, e.g. after it got into a broken state
+    public static void evict(PooledSession session) {
+        poolFor(session.getBrowser()).evictLeased(session);
     }
 
-    public static void quitDriver() {
-        WebDriver driver = driverThreadLocal.get();
-        if (driver != null) {
-            driver.quit();
-            driverThreadLocal.remove();
+    public static void warmUp(String browser, int sessions) {
+        poolFor(browser).warmUp(sessions);
+    }
+
+    // All types at once, so their startups overlap
+    public static void warmUp(Collection<String> browsers, int sessionsEach) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            browsers.forEach(browser -> executor.submit(() -> warmUp(browser, sessionsEach)));
         }
     }
+
+    public static int getCapacity() {
+        return CAPACITY;
+    }
+
+    public static int getLimit(String browser) {
+        String key = browser.toLowerCase();
+        Integer limit = Integer.getInteger("pool.limit." + key, Integer.getInteger("pool.limit." + key.split(":", 2)[0]));
+        return limit == null ? CAPACITY : Math.min(limit, CAPACITY);
+    }
+
+    public static PoolStats getStats(String browser) {
+        return poolFor(browser).getStats();
+    }
+
+    // Replaces the -Ddriver.backend one, e.g. so benchmarks and tools can use drivers without a real browser
+    public static void setBackend(DriverBackend driverBackend) {
+        backend = driverBackend;
+    }
+
+    static boolean isLocal() {
+        return backend.isLocal();
+    }
+
+    public static void shutdown() {
+        pools.values().forEach(SessionPool::shutdown);
+    }
+
+    public static void printStats() {
+        pools.values().forEach(pool -> log.info("Driver pool {}", pool.getStats()));
+    }
+
+    private static SessionPool poolFor(String browser) {
+        String key = browser.toLowerCase();
+        return pools.computeIfAbsent(key,
+                name -> new SessionPool(name, () -> createDriver(name), getLimit(name), SHARED, MAX_AGE, MAX_LEASES));
+    }
+
+    // The browser parameter is <browser> or <browser>:<preset>, see BrowserPreset
+    private static WebDriver createDriver(String browserParameter) {
+        String[] parts = browserParameter.split(":", 2);
+        String browser = parts[0];
+        BrowserPreset preset = BrowserPreset.of(parts.length > 1 ? parts[1] : "default");
+        WebDriver driver = backend.create(browser, preset);
+        // Every command sent through the pooled driver is timed for the run report
+        driver = TimedDriver.wrap(driver);
+        preset.prepareWindow(driver);
+        driver.manage().deleteAllCookies();
+        return driver;
+    }
 }
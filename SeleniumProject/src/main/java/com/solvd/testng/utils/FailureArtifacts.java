@@ -0,0 +1,182 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+ * Saves what a failed test left in its browser: a screenshot, the page source with its URL and title, and
+ * the console. The test thread only makes the three driver calls and hands the bytes over; one background
+ * thread zips them into <name>.zip under -Dartifacts.dir (target/failure-artifacts by default). At most
+ * -Dartifacts.queue captures wait for the writer - beyond that the test thread waits too, and a capture
+ * that still finds no room after -Dartifacts.offerSeconds is dropped. flush() waits for everything queued.
+ */
+@Slf4j
+public class FailureArtifacts {
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("artifacts.dir", "target/failure-artifacts"));
+    private static final int QUEUE_CAPACITY = Integer.getInteger("artifacts.queue", 16);
+    private static final long OFFER_SECONDS = Long.getLong("artifacts.offerSeconds", 30);
+
+    private static final String PAGE_SCRIPT =
+            "return [location.href, document.title, document.documentElement ? document.documentElement.outerHTML : ''];";
+
+    private record Capture(String name, byte[] screenshot, String page, String console) {
+    }
+
+    private static final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicInteger sequence = new AtomicInteger();
+    private static final AtomicInteger written = new AtomicInteger();
+    private static final AtomicInteger dropped = new AtomicInteger();
+    private static final AtomicLong bytesWritten = new AtomicLong();
+    private static final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, queue,
+            runnable -> {
+                Thread thread = new Thread(runnable, "failure-artifacts");
+                thread.setDaemon(true);
+                return thread;
+            },
+            // Backpressure: a full queue makes the failing test wait for the writer instead of growing the heap
+            (task, executor) -> {
+                try {
+                    if (executor.isShutdown() || !queue.offer(task, OFFER_SECONDS, TimeUnit.SECONDS)) {
+                        throw new RejectedExecutionException();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(e);
+                }
+            });
+
+    private FailureArtifacts() {
+    }
+
+    public static void capture(WebDriver driver, String name) {
+        Capture capture = new Capture(fileNameOf(name), screenshot(driver), page(driver), console(driver));
+        try {
+            writer.execute(() -> write(capture));
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            log.warn("Dropped failure artifacts of {}, the writer is behind or stopped", name);
+        }
+    }
+
+    // Waits until every queued capture is on disk; later captures are dropped
+    public static void flush() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(2, TimeUnit.MINUTES)) {
+                log.warn("Failure artifacts are still being written after 2 minutes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (written.get() > 0 || dropped.get() > 0) {
+            log.info("Failure artifacts: {} written ({}KB) to {}, {} dropped", written.get(), bytesWritten.get() / 1024,
+                    DIRECTORY.toAbsolutePath(), dropped.get());
+        }
+    }
+
+    private static byte[] screenshot(WebDriver driver) {
+        try {
+            return driver instanceof TakesScreenshot screenshots ? screenshots.getScreenshotAs(OutputType.BYTES) : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // URL, title and source in one round trip instead of three
+    private static String page(WebDriver driver) {
+        try {
+            List<?> page = (List<?>) ((JavascriptExecutor) driver).executeScript(PAGE_SCRIPT);
+            return "<!-- " + page.get(0) + " | " + page.get(1) + " -->\n" + page.get(2);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Firefox has no log endpoint, and an alert left open blocks it too
+    private static String console(WebDriver driver) {
+        try {
+            StringBuilder console = new StringBuilder();
+            for (LogEntry entry : driver.manage().logs().get(LogType.BROWSER)) {
+                console.append(Instant.ofEpochMilli(entry.getTimestamp())).append(' ')
+                        .append(entry.getLevel()).append(' ').append(entry.getMessage()).append('\n');
+            }
+            return console.toString();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void write(Capture capture) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Path target = DIRECTORY.resolve(capture.name() + ".zip");
+            Path temp = Files.createTempFile(DIRECTORY, capture.name(), ".tmp");
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(temp))) {
+                if (capture.screenshot() != null) {
+                    // PNG is compressed already, deflating it again costs time and saves nothing
+                    storeEntry(zip, "screenshot.png", capture.screenshot());
+                }
+                if (capture.page() != null) {
+                    deflateEntry(zip, "page.html", capture.page());
+                }
+                if (capture.console() != null) {
+                    deflateEntry(zip, "console.log", capture.console());
+                }
+            }
+            bytesWritten.addAndGet(Files.size(temp));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            written.incrementAndGet();
+        } catch (IOException e) {
+            log.warn("Could not write failure artifacts of {}: {}", capture.name(), e.getMessage());
+        }
+    }
+
+    private static void storeEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        write(zip, entry, content);
+    }
+
+    private static void deflateEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        write(zip, new ZipEntry(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void write(ZipOutputStream zip, ZipEntry entry, byte[] content) throws IOException {
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private static String fileNameOf(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + System.currentTimeMillis() + "-" + sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,130 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Fills a form in three round trips however many fields it has: one wait in the page (see PageEvents) until
+ * the form and all of its fields can take input, one script that sets every value and fires the input and
+ * change events a user's typing would, and one read-back of all values. Fields the read-back disagrees with
+ * are typed once more key by key. Input.KEYSTROKES (or -Dform.input=keystrokes) types every field, for tests that need real
+ * key events. Field selectors are CSS, resolved inside the form.
+ */
+public class FormFiller {
+
+    public enum Input {
+        SCRIPT, KEYSTROKES
+    }
+
+    private static final Input DEFAULT_INPUT =
+            "keystrokes".equalsIgnoreCase(System.getProperty("form.input")) ? Input.KEYSTROKES : Input.SCRIPT;
+
+    private static final String READY_CHECK = """
+            var form = document.querySelector(args.form);
+            function usable(element) {
+                if (!element || element.getClientRects().length === 0) {
+                    return false;
+                }
+                var style = window.getComputedStyle(element);
+                return style.visibility !== 'hidden' && style.opacity !== '0';
+            }
+            if (!usable(form)) {
+                return false;
+            }
+            return args.selectors.every(function (selector) {
+                var field = form.querySelector(selector);
+                return usable(field) && !field.disabled && !field.readOnly;
+            });
+            """;
+    // The prototype's setter is used so frameworks that track the value property notice the change
+    private static final String SET_SCRIPT = """
+            var form = document.querySelector(arguments[0]), values = arguments[1];
+            Object.keys(values).forEach(function (selector) {
+                var field = form.querySelector(selector);
+                var prototype = field instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype
+                    : field instanceof HTMLSelectElement ? HTMLSelectElement.prototype : HTMLInputElement.prototype;
+                field.focus();
+                Object.getOwnPropertyDescriptor(prototype, 'value').set.call(field, values[selector]);
+                field.dispatchEvent(new Event('input', { bubbles: true }));
+                field.dispatchEvent(new Event('change', { bubbles: true }));
+                field.blur();
+            });
+            """;
+    private static final String READ_SCRIPT = """
+            var form = document.querySelector(arguments[0]);
+            return arguments[1].map(function (selector) { return form.querySelector(selector).value; });
+            """;
+
+    private final WebDriver driver;
+    private final String form;
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private Input input = DEFAULT_INPUT;
+
+    private FormFiller(WebDriver driver, String form) {
+        this.driver = driver;
+        this.form = form;
+    }
+
+    public static FormFiller in(WebDriver driver, String formSelector) {
+        return new FormFiller(driver, formSelector);
+    }
+
+    public FormFiller field(String selector, String value) {
+        values.put(selector, value);
+        return this;
+    }
+
+    public FormFiller using(Input input) {
+        this.input = input;
+        return this;
+    }
+
+    public FormFiller awaitReady() {
+        PageEvents.await(driver, "FormFiller " + form, "The form " + form + " did not become ready for input!",
+                READY_CHECK, Map.of("form", form, "selectors", new ArrayList<>(values.keySet())));
+        return this;
+    }
+
+    public void fill() {
+        awaitReady();
+        List<String> selectors = new ArrayList<>(values.keySet());
+        if (input == Input.KEYSTROKES) {
+            selectors.forEach(this::type);
+        } else {
+            ((JavascriptExecutor) driver).executeScript(SET_SCRIPT, form, values);
+        }
+
+        List<String> wrong = mismatches(selectors);
+        if (!wrong.isEmpty()) {
+            wrong.forEach(this::type);
+            wrong = mismatches(wrong);
+            if (!wrong.isEmpty()) {
+                throw new IllegalStateException("Fields " + wrong + " of " + form + " do not hold the expected values");
+            }
+        }
+    }
+
+    private List<String> mismatches(List<String> selectors) {
+        List<?> actual = (List<?>) ((JavascriptExecutor) driver).executeScript(READ_SCRIPT, form, selectors);
+        List<String> wrong = new ArrayList<>();
+        for (int i = 0; i < selectors.size(); i++) {
+            if (!values.get(selectors.get(i)).equals(actual.get(i))) {
+                wrong.add(selectors.get(i));
+            }
+        }
+        return wrong;
+    }
+
+    private void type(String selector) {
+        WebElement field = driver.findElement(By.cssSelector(form + " " + selector));
+        field.clear();
+        field.sendKeys(values.get(selector));
+    }
+}
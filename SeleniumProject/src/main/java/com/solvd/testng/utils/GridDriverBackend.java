@@ -0,0 +1,130 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Sessions from one or more Selenium Grid 4 endpoints (-Dgrid.url, comma separated, http://localhost:4444
+ * by default, so a standalone server started on this machine works as a stand-in). Before every new session
+ * each endpoint's /status is read and the session goes to the one whose slots for the browser are least
+ * busy, counting sessions this JVM is still starting there. Inside one grid its distributor picks the node.
+ * Sessions are augmented, so DevTools features work where the grid forwards them.
+ */
+public class GridDriverBackend implements DriverBackend {
+
+    private static final Duration STATUS_TIMEOUT = Duration.ofSeconds(2);
+
+    private final List<Endpoint> endpoints = Arrays.stream(System.getProperty("grid.url", "http://localhost:4444")
+                    .split(","))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .map(Endpoint::new)
+            .toList();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(STATUS_TIMEOUT).build();
+
+    @Override
+    public String name() {
+        return "grid";
+    }
+
+    @Override
+    public WebDriver create(String browser, BrowserPreset preset) {
+        Endpoint endpoint = leastLoaded(browser);
+        endpoint.starting.incrementAndGet();
+        try {
+            return new Augmenter().augment(new RemoteWebDriver(endpoint.url, preset.options(browser)));
+        } finally {
+            endpoint.starting.decrementAndGet();
+        }
+    }
+
+    // Endpoints that do not answer or have no slot for the browser are skipped; if none is left the first
+    // one gets the session and the grid queues it
+    private Endpoint leastLoaded(String browser) {
+        List<CompletableFuture<Optional<Double>>> loads = endpoints.stream().map(endpoint -> loadOf(endpoint, browser)).toList();
+        Endpoint best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (int i = 0; i < endpoints.size(); i++) {
+            Optional<Double> load = loads.get(i).join();
+            if (load.isPresent() && load.get() < bestLoad) {
+                best = endpoints.get(i);
+                bestLoad = load.get();
+            }
+        }
+        return best != null ? best : endpoints.get(0);
+    }
+
+    private CompletableFuture<Optional<Double>> loadOf(Endpoint endpoint, String browser) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint.status).timeout(STATUS_TIMEOUT).GET().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> response.statusCode() == 200
+                        ? load(response.body(), browser, endpoint.starting.get())
+                        : Optional.<Double>empty())
+                .exceptionally(e -> Optional.empty());
+    }
+
+    private static Optional<Double> load(String status, String browser, int starting) {
+        Map<String, Object> response = new Json().toType(status, Json.MAP_TYPE);
+        Map<?, ?> value = (Map<?, ?>) response.get("value");
+        if (value == null || !Boolean.TRUE.equals(value.get("ready")) || !(value.get("nodes") instanceof List<?> nodes)) {
+            return Optional.empty();
+        }
+        int slots = 0;
+        int busy = starting;
+        for (Object node : nodes) {
+            Map<?, ?> nodeStatus = (Map<?, ?>) node;
+            if (!"UP".equals(nodeStatus.get("availability")) || !(nodeStatus.get("slots") instanceof List<?> nodeSlots)) {
+                continue;
+            }
+            for (Object slot : nodeSlots) {
+                Map<?, ?> slotStatus = (Map<?, ?>) slot;
+                Map<?, ?> stereotype = (Map<?, ?>) slotStatus.get("stereotype");
+                if (stereotype != null && isBrowser(browser, stereotype.get("browserName"))) {
+                    slots++;
+                    if (slotStatus.get("session") != null) {
+                        busy++;
+                    }
+                }
+            }
+        }
+        return slots == 0 ? Optional.empty() : Optional.of((double) busy / slots);
+    }
+
+    private static boolean isBrowser(String browser, Object browserName) {
+        return browser.equalsIgnoreCase(String.valueOf(browserName))
+                || "edge".equals(browser) && "MicrosoftEdge".equals(browserName);
+    }
+
+    private static class Endpoint {
+
+        private final URL url;
+        private final URI status;
+        private final AtomicInteger starting = new AtomicInteger();
+
+        Endpoint(String address) {
+            String base = address.endsWith("/") ? address : address + "/";
+            try {
+                this.url = URI.create(base).toURL();
+            } catch (MalformedURLException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Not a grid URL: " + address, e);
+            }
+            this.status = URI.create(base + "status");
+        }
+    }
+}
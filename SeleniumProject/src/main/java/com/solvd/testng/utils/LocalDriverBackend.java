@@ -0,0 +1,80 @@
+package com.solvd.testng.utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Browsers on this machine. The driver binary of each browser is resolved once per JVM, not per session: from the
+ * DriverBinaries manifest when it lists the browser, which also pins the browser binary, otherwise through
+ * WebDriverManager (unless -Ddrivers.offline is set).
+ */
+public class LocalDriverBackend implements DriverBackend {
+
+    private static final Map<String, Optional<Path>> browserBinaries = new ConcurrentHashMap<>();
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public WebDriver create(String browser, BrowserPreset preset) {
+        Optional<Path> binary = browserBinaries.computeIfAbsent(browser, LocalDriverBackend::resolve);
+        return switch (browser) {
+            case "chrome" -> new ChromeDriver(withBinary(preset.chromeOptions(), binary));
+            case "firefox" -> new FirefoxDriver(withBinary(preset.firefoxOptions(), binary));
+            case "edge" -> new EdgeDriver(withBinary(preset.edgeOptions(), binary));
+            default -> throw new IllegalArgumentException("Browser not supported: " + browser);
+        };
+    }
+
+    // Sessions started in parallel during warm-up wait here for the one resolution instead of each running it
+    private static Optional<Path> resolve(String browser) {
+        String driverProperty = switch (browser) {
+            case "chrome" -> ChromeDriverService.CHROME_DRIVER_EXE_PROPERTY;
+            case "firefox" -> GeckoDriverService.GECKO_DRIVER_EXE_PROPERTY;
+            case "edge" -> EdgeDriverService.EDGE_DRIVER_EXE_PROPERTY;
+            default -> throw new IllegalArgumentException("Browser not supported: " + browser);
+        };
+        Optional<DriverBinaries.Entry> entry = DriverBinaries.find(browser);
+        if (entry.isPresent()) {
+            // With the driver given, Selenium does not look for one either
+            System.setProperty(driverProperty, entry.get().driver().toString());
+            return Optional.ofNullable(entry.get().browserBinary());
+        }
+        if (DriverBinaries.isOffline()) {
+            throw new IllegalStateException("No " + browser + " driver in " + DriverBinaries.MANIFEST.toAbsolutePath()
+                    + " and -Ddrivers.offline is set, run DriverBootstrap first");
+        }
+        WebDriverManager.getInstance(browser).setup();
+        return Optional.empty();
+    }
+
+    private static <T extends ChromiumOptions<?>> T withBinary(T options, Optional<Path> binary) {
+        binary.ifPresent(path -> options.setBinary(path.toFile()));
+        return options;
+    }
+
+    private static FirefoxOptions withBinary(FirefoxOptions options, Optional<Path> binary) {
+        binary.ifPresent(options::setBinary);
+        return options;
+    }
+}
@@ -0,0 +1,34 @@
+package com.solvd.testng.utils;
+
+import org.slf4j.MDC;
+
+/*
+ * Logging context of the current thread: the test (or virtual user) it works for, its browser and the
+ * browser session. Every event logged on the thread carries them, see log4j2.xml; the thread's name is
+ * part of every event anyway.
+ */
+public class LogContext {
+
+    public static final String TEST = "test";
+    public static final String BROWSER = "browser";
+    public static final String SESSION = "session";
+
+    private LogContext() {
+    }
+
+    public static void startTest(String test, String browser) {
+        MDC.clear();
+        MDC.put(TEST, test);
+        if (browser != null) {
+            MDC.put(BROWSER, browser);
+        }
+    }
+
+    public static void session(PooledSession session) {
+        MDC.put(SESSION, session.getSessionId());
+    }
+
+    public static void clear() {
+        MDC.clear();
+    }
+}
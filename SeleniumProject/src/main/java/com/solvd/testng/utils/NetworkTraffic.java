@@ -0,0 +1,226 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Intercepts a Chrome or Edge session's requests over DevTools. Requests matching the denylist
+ * (-Dnetwork.deny, comma separated URL fragments) get an empty 204, static assets are answered from the
+ * shared AssetCache with their CORS and caching headers, and everything else goes to the network untouched.
+ * -Dnetwork.intercept=false turns it off; Firefox and remote sessions without DevTools are left alone.
+ */
+@Slf4j
+public class NetworkTraffic implements AutoCloseable {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("network.intercept", "true"));
+    private static final List<String> DENYLIST = Arrays.stream(System.getProperty("network.deny",
+                    "google-analytics.com,googletagmanager.com,doubleclick.net,googlesyndication.com,"
+                            + "googleadservices.com,facebook.net,connect.facebook,hotjar.com,adservice.google")
+                    .split(","))
+            .map(String::trim)
+            .filter(fragment -> !fragment.isEmpty())
+            .toList();
+    private static final Set<String> STATIC_EXTENSIONS = Set.of(
+            "js", "css", "png", "jpg", "jpeg", "gif", "svg", "webp", "ico", "woff", "woff2", "ttf", "otf");
+    private static final Set<String> REPLAYED_HEADERS = Set.of("content-type", "cache-control", "etag",
+            "last-modified", "vary", "timing-allow-origin", "cross-origin-resource-policy");
+
+    public record Usage(long requests, long blocked, long cacheHits, long bytesTransferred, long bytesFromCache,
+                        long savedMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d, blocked=%d, cacheHits=%d, transferred=%dKB, fromCache=%dKB, saved=%dms",
+                    requests, blocked, cacheHits, bytesTransferred / 1024, bytesFromCache / 1024, savedMillis);
+        }
+    }
+
+    private enum Metric {
+        REQUESTS, BLOCKED, CACHE_HITS, BYTES_TRANSFERRED, BYTES_FROM_CACHE, SAVED_NANOS
+    }
+
+    private static final Counters suiteTotals = new Counters();
+
+    private final Counters counters = new Counters();
+    private final NetworkInterceptor interceptor;
+
+    private NetworkTraffic(WebDriver driver) {
+        this.interceptor = new NetworkInterceptor(driver, (Filter) next -> request -> handle(next, request));
+    }
+
+    static Optional<NetworkTraffic> attach(WebDriver driver) {
+        if (!ENABLED || !(driver instanceof HasDevTools)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new NetworkTraffic(driver));
+        } catch (RuntimeException e) {
+            // e.g. a browser newer than the DevTools versions bundled with Selenium
+            log.warn("Network interception is off for this session: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // What the session did since the previous call, i.e. during the current test
+    public Usage takeUsage() {
+        return counters.drain();
+    }
+
+    public static void printStats() {
+        Usage total = suiteTotals.drain();
+        if (total.requests() > 0) {
+            log.info("Network traffic: {}", total);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            interceptor.close();
+        } catch (RuntimeException e) {
+            // The browser is usually already gone
+        }
+    }
+
+    private HttpResponse handle(HttpHandler network, HttpRequest request) {
+        count(Metric.REQUESTS, 1);
+        String url = request.getUri();
+        if (isDenied(url)) {
+            count(Metric.BLOCKED, 1);
+            return new HttpResponse().setStatus(204);
+        }
+        if (request.getMethod() != HttpMethod.GET || !isStaticAsset(url)) {
+            return NetworkInterceptor.PROCEED_WITH_REQUEST;
+        }
+
+        // Assets answered with Vary: Origin differ per origin, so the requesting origin is part of the key
+        String origin = request.getHeader("Origin");
+        String key = origin == null ? url : url + " " + origin;
+        Optional<AssetCache.Entry> cached = AssetCache.SHARED.get(key);
+        if (cached.isPresent() && cached.get().isFresh()) {
+            return fromCache(cached.get(), cached.get().fetchNanos());
+        }
+        cached.flatMap(entry -> entry.header("ETag")).ifPresent(etag -> request.setHeader("If-None-Match", etag));
+        cached.flatMap(entry -> entry.header("Last-Modified"))
+                .ifPresent(lastModified -> request.setHeader("If-Modified-Since", lastModified));
+
+        long start = System.nanoTime();
+        HttpResponse response = network.execute(request);
+        long fetchNanos = System.nanoTime() - start;
+        if (response.getStatus() == 304 && cached.isPresent()) {
+            AssetCache.Entry entry = AssetCache.SHARED.revalidated(key, cached.get(), replayedHeaders(response));
+            return fromCache(entry, Math.max(0, entry.fetchNanos() - fetchNanos));
+        }
+        if (response.getStatus() != 200) {
+            return response;
+        }
+        // DevTools hands over the decoded body, so the original encoding headers no longer describe it
+        byte[] body = Contents.bytes(response.getContent());
+        response.removeHeader("Content-Encoding");
+        response.removeHeader("Content-Length");
+        response.setContent(Contents.bytes(body));
+        count(Metric.BYTES_TRANSFERRED, body.length);
+        String cacheControl = response.getHeader("Cache-Control");
+        if (cacheControl == null || !cacheControl.contains("no-store")) {
+            Map<String, String> headers = replayedHeaders(response);
+            headers.putIfAbsent("Content-Type", "application/octet-stream");
+            AssetCache.SHARED.put(key, headers, body, fetchNanos);
+        }
+        return response;
+    }
+
+    private HttpResponse fromCache(AssetCache.Entry entry, long savedNanos) {
+        count(Metric.CACHE_HITS, 1);
+        count(Metric.BYTES_FROM_CACHE, entry.body().length);
+        count(Metric.SAVED_NANOS, savedNanos);
+        HttpResponse response = new HttpResponse().setStatus(200).setContent(Contents.bytes(entry.body()));
+        entry.headers().forEach(response::setHeader);
+        return response;
+    }
+
+    // What the page needs to use the asset again: its type, CORS and caching headers. Repeated headers are
+    // joined into one, as HTTP allows for these
+    private static Map<String, String> replayedHeaders(HttpResponse response) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : response.getHeaderNames()) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (REPLAYED_HEADERS.contains(lower) || lower.startsWith("access-control-")) {
+                headers.put(name, String.join(", ", response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static boolean isDenied(String url) {
+        for (String fragment : DENYLIST) {
+            if (url.contains(fragment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isStaticAsset(String url) {
+        String path;
+        try {
+            path = URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (path == null) {
+            return false;
+        }
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') && STATIC_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private void count(Metric metric, long amount) {
+        counters.add(metric, amount);
+        suiteTotals.add(metric, amount);
+    }
+
+    private static class Counters {
+
+        private final Map<Metric, LongAdder> values = new EnumMap<>(Metric.class);
+
+        Counters() {
+            for (Metric metric : Metric.values()) {
+                values.put(metric, new LongAdder());
+            }
+        }
+
+        void add(Metric metric, long amount) {
+            values.get(metric).add(amount);
+        }
+
+        Usage drain() {
+            return new Usage(take(Metric.REQUESTS), take(Metric.BLOCKED), take(Metric.CACHE_HITS),
+                    take(Metric.BYTES_TRANSFERRED), take(Metric.BYTES_FROM_CACHE),
+                    TimeUnit.NANOSECONDS.toMillis(take(Metric.SAVED_NANOS)));
+        }
+
+        private long take(Metric metric) {
+            return values.get(metric).sumThenReset();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Replacement for PageFactory.initElements. Fields annotated with @FindBy get lazy proxies backed by a
+ * CachedElementLocator, so repeated access to the same field does not go back to the browser until the
+ * DOM generation moves on. Single elements that turn out to be stale are re-resolved once.
+ */
+public class PageElements {
+
+    private static final String BATCH_SCRIPT = """
+            return arguments[0].map(function (spec) {
+                if (spec.css) {
+                    return Array.from(document.querySelectorAll(spec.css));
+                }
+                var snapshot = document.evaluate(spec.xpath, document, null,
+                        XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+                var found = [];
+                for (var i = 0; i < snapshot.snapshotLength; i++) {
+                    found.push(snapshot.snapshotItem(i));
+                }
+                return found;
+            });
+            """;
+
+    private final WebDriver driver;
+    private final Map<String, PageMetadata.ElementField> fields = new HashMap<>();
+    private final Map<String, CachedElementLocator> locators = new HashMap<>();
+
+    private PageElements(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static PageElements init(WebDriver driver, Object page) {
+        PageElements elements = new PageElements(driver);
+        for (PageMetadata.ElementField field : PageMetadata.of(page.getClass()).getFields()) {
+            CachedElementLocator locator = new CachedElementLocator(driver, field.by());
+            String name = field.field().getName();
+            elements.fields.put(name, field);
+            elements.locators.put(name, locator);
+            try {
+                field.field().set(page, field.list() ? listProxy(locator) : elementProxy(locator));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot initialise field " + name, e);
+            }
+        }
+        return elements;
+    }
+
+    // Resolves several fields with a single executeScript call instead of one findElements each
+    public void prefetch(String... fieldNames) {
+        List<Map<String, String>> specs = new ArrayList<>();
+        for (String name : fieldNames) {
+            PageMetadata.ElementField field = fieldOf(name);
+            if (field.css() == null && field.xpath() == null) {
+                throw new IllegalArgumentException("Field " + name + " has no css or xpath locator to batch");
+            }
+            specs.add(field.css() != null ? Map.of("css", field.css()) : Map.of("xpath", field.xpath()));
+        }
+
+        List<?> results = (List<?>) ((JavascriptExecutor) driver).executeScript(BATCH_SCRIPT, specs);
+        for (int i = 0; i < fieldNames.length; i++) {
+            List<WebElement> found = new ArrayList<>();
+            for (Object element : (List<?>) results.get(i)) {
+                found.add((WebElement) element);
+            }
+            locators.get(fieldNames[i]).seed(found);
+        }
+    }
+
+    public void invalidate() {
+        locators.values().forEach(CachedElementLocator::invalidate);
+    }
+
+    private PageMetadata.ElementField fieldOf(String name) {
+        PageMetadata.ElementField field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("No @FindBy field named " + name);
+        }
+        return field;
+    }
+
+    private static WebElement elementProxy(CachedElementLocator locator) {
+        return (WebElement) Proxy.newProxyInstance(PageElements.class.getClassLoader(),
+                new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class},
+                (proxy, method, args) -> {
+                    if ("getWrappedElement".equals(method.getName())) {
+                        return locator.findElement();
+                    }
+                    try {
+                        return invoke(locator.findElement(), method, args);
+                    } catch (StaleElementReferenceException e) {
+                        locator.invalidate();
+                        return invoke(locator.findElement(), method, args);
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<WebElement> listProxy(CachedElementLocator locator) {
+        return (List<WebElement>) Proxy.newProxyInstance(PageElements.class.getClassLoader(),
+                new Class<?>[]{List.class},
+                (proxy, method, args) -> invoke(locator.findElements(), method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Map;
+
+/*
+ * Waits for a condition inside the page instead of polling it from here: one asynchronous script checks
+ * the condition and then re-checks it whenever the DOM changes, a CSS transition or animation ends, or a
+ * page-side hook announces a change (the "pageevents:change" event, see Dialogs). It answers as soon as the
+ * check returns something truthy, so there is neither a poll interval to sit out nor a round trip per try.
+ * The timeout comes from WaitLatencies like AdaptiveWait's; note that a navigation ends the script.
+ */
+@SuppressWarnings("try")
+public class PageEvents {
+
+    public static final String CHANGE_EVENT = "pageevents:change";
+
+    private static final String AWAIT_SCRIPT = """
+            var args = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];
+            var check = function (args) { %s };
+            var events = ['transitionend', 'animationend', '%s'];
+            var finished = false, observer = null, timer = null;
+            function finish(result) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (observer) {
+                    observer.disconnect();
+                }
+                events.forEach(function (type) { window.removeEventListener(type, test, true); });
+                clearTimeout(timer);
+                done(result);
+            }
+            function test() {
+                try {
+                    var value = check(args);
+                    if (value) {
+                        finish({ value: value });
+                    }
+                } catch (e) {
+                    finish({ error: String(e) });
+                }
+            }
+            observer = new MutationObserver(test);
+            observer.observe(document, { subtree: true, childList: true, attributes: true, characterData: true });
+            events.forEach(function (type) { window.addEventListener(type, test, true); });
+            timer = setTimeout(function () { finish(null); }, timeout);
+            test();
+            """;
+
+    private PageEvents() {
+    }
+
+    // checkBody is the body of a JavaScript function of args, which is passed through to the page
+    public static Object await(WebDriver driver, String condition, String message, String checkBody, Object args) {
+        Duration timeout = WaitLatencies.policyFor(condition).timeout();
+        long start = System.nanoTime();
+        try (Span ignored = Profiler.start(Profiler.WAIT, condition)) {
+            Object result;
+            try {
+                result = ((JavascriptExecutor) driver).executeAsyncScript(
+                        String.format(AWAIT_SCRIPT, checkBody, CHANGE_EVENT), args, timeout.toMillis());
+            } catch (ScriptTimeoutException e) {
+                result = null;
+            }
+            if (result instanceof Map<?, ?> outcome) {
+                if (outcome.containsKey("error")) {
+                    throw new IllegalStateException("Checking " + condition + " failed in the page: " + outcome.get("error"));
+                }
+                WaitLatencies.record(condition, System.nanoTime() - start);
+                return outcome.get("value");
+            }
+            WaitLatencies.recordTimeout(condition, timeout);
+            String waited = "Waited " + timeout.toMillis() + " ms for " + condition;
+            throw new TimeoutException(message == null ? waited : message + " (" + waited + ")");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.solvd.testng.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.pagefactory.Annotations;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reflection over a page class, done once per class and shared by all of its instances
+class PageMetadata {
+
+    private static final ClassValue<PageMetadata> cache = new ClassValue<>() {
+        @Override
+        protected PageMetadata computeValue(Class<?> pageClass) {
+            return new PageMetadata(pageClass);
+        }
+    };
+
+    record ElementField(Field field, By by, boolean list, String css, String xpath) {
+    }
+
+    private final List<ElementField> fields = new ArrayList<>();
+
+    private PageMetadata(Class<?> pageClass) {
+        for (Class<?> type = pageClass; type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                FindBy findBy = field.getAnnotation(FindBy.class);
+                if (findBy == null) {
+                    continue;
+                }
+                boolean list = isWebElementList(field);
+                if (!list && field.getType() != WebElement.class) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(new ElementField(field, new Annotations(field).buildBy(), list,
+                        cssOf(findBy), findBy.xpath().isEmpty() ? null : findBy.xpath()));
+            }
+        }
+    }
+
+    static PageMetadata of(Class<?> pageClass) {
+        return cache.get(pageClass);
+    }
+
+    List<ElementField> getFields() {
+        return fields;
+    }
+
+    private static boolean isWebElementList(Field field) {
+        return field.getType() == List.class
+                && field.getGenericType() instanceof ParameterizedType type
+                && type.getActualTypeArguments()[0] == WebElement.class;
+    }
+
+    private static String cssOf(FindBy findBy) {
+        if (!findBy.css().isEmpty()) {
+            return findBy.css();
+        }
+        if (!findBy.id().isEmpty()) {
+            return "[id='" + findBy.id() + "']";
+        }
+        return null;
+    }
+}
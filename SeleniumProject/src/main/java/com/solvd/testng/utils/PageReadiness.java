@@ -0,0 +1,142 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.profiling.Profiler;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Waits on real page signals instead of fixed sleeps. An injected probe counts in-flight XHR and fetch
+ * requests (plus jQuery.active, since the catalog is loaded with $.ajax before the probe can be installed)
+ * and resolves once nothing is pending and the watched node count has stayed the same across a few
+ * animation frames. All waits of one page share a single polling budget that restarts on navigation.
+ */
+public class PageReadiness {
+
+    private static final Duration DEFAULT_BUDGET = Duration.ofSeconds(10);
+    private static final int STABLE_FRAMES = 3;
+    private static final Duration RETRY_PAUSE = Duration.ofMillis(50);
+    // How long after expectNavigation the old page is ignored if no navigation has replaced it yet
+    private static final Duration NAVIGATION_GRACE = Duration.ofSeconds(1);
+
+    private static final String PROBE_SCRIPT = """
+            var selector = arguments[0], stableFrames = arguments[1], deadline = Date.now() + arguments[2];
+            var done = arguments[arguments.length - 1];
+            var probe = window.__readinessProbe;
+            if (!probe) {
+                probe = window.__readinessProbe = { pending: 0 };
+                var send = XMLHttpRequest.prototype.send;
+                XMLHttpRequest.prototype.send = function () {
+                    probe.pending++;
+                    this.addEventListener('loadend', function () { probe.pending--; });
+                    return send.apply(this, arguments);
+                };
+                if (window.fetch) {
+                    var originalFetch = window.fetch;
+                    window.fetch = function () {
+                        probe.pending++;
+                        return originalFetch.apply(this, arguments).finally(function () { probe.pending--; });
+                    };
+                }
+            }
+            var schedule = document.hidden
+                ? function (callback) { setTimeout(callback, 16); }
+                : window.requestAnimationFrame.bind(window);
+            var lastCount = -1, stable = 0;
+            function check() {
+                if (window.__readinessLeaving) {
+                    if (Date.now() < window.__readinessLeaving) {
+                        schedule(check);
+                        return;
+                    }
+                    // The action did not navigate after all
+                    delete window.__readinessLeaving;
+                }
+                var pending = probe.pending + (window.jQuery ? window.jQuery.active : 0);
+                var count = selector ? document.querySelectorAll(selector).length : 0;
+                var ready = document.readyState === 'complete' && pending === 0 && (!selector || count > 0);
+                stable = ready && count === lastCount ? stable + 1 : 0;
+                lastCount = count;
+                if (stable >= stableFrames) {
+                    done({ ready: true, count: count });
+                } else if (Date.now() > deadline) {
+                    done({ ready: false, count: count, pending: pending });
+                } else {
+                    schedule(check);
+                }
+            }
+            schedule(check);
+            """;
+
+    private final WebDriver driver;
+    private final Duration budget;
+    private long deadlineNanos;
+
+    public PageReadiness(WebDriver driver) {
+        this(driver, DEFAULT_BUDGET);
+    }
+
+    public PageReadiness(WebDriver driver, Duration budget) {
+        this.driver = driver;
+        this.budget = budget;
+        restartBudget();
+    }
+
+    // Call right before an action that loads a new document, so waits ignore the page being left
+    public void expectNavigation() {
+        ((JavascriptExecutor) driver).executeScript("window.__readinessLeaving = Date.now() + arguments[0];",
+                NAVIGATION_GRACE.toMillis());
+        restartBudget();
+    }
+
+    public int awaitStableCount(String waitName, String cssSelector, Duration replacedSleep) {
+        return Profiler.time(Profiler.WAIT, waitName, () -> awaitProbe(waitName, cssSelector, replacedSleep));
+    }
+
+    private int awaitProbe(String waitName, String cssSelector, Duration replacedSleep) {
+        long start = System.nanoTime();
+        Object lastResult = null;
+        while (remainingMillis() > 0) {
+            try {
+                lastResult = ((JavascriptExecutor) driver)
+                        .executeAsyncScript(PROBE_SCRIPT, cssSelector, STABLE_FRAMES, remainingMillis());
+            } catch (WebDriverException e) {
+                if (!isNavigationRace(e)) {
+                    throw e;
+                }
+                // The document was unloaded under the probe - retry on the new one once it had a moment to load
+                LockSupport.parkNanos(Math.min(RETRY_PAUSE.toNanos(), remainingMillis() * 1_000_000));
+                continue;
+            }
+            if (lastResult instanceof Map<?, ?> result && Boolean.TRUE.equals(result.get("ready"))) {
+                ReadinessStats.record(waitName, System.nanoTime() - start, replacedSleep);
+                return ((Number) result.get("count")).intValue();
+            }
+        }
+        throw new TimeoutException("Page was not ready for " + waitName + " within " + budget + ", last probe: " + lastResult);
+    }
+
+    // Anything else, e.g. a dead session or an open alert, is a real failure and not a slow page
+    private static boolean isNavigationRace(WebDriverException e) {
+        if (e instanceof JavascriptException || e instanceof StaleElementReferenceException) {
+            return true;
+        }
+        String message = String.valueOf(e.getMessage());
+        return message.contains("execution context") || message.contains("unloaded");
+    }
+
+    private void restartBudget() {
+        deadlineNanos = System.nanoTime() + budget.toNanos();
+    }
+
+    private long remainingMillis() {
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000);
+    }
+}
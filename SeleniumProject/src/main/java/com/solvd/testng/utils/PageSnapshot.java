@@ -0,0 +1,178 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.Span;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/*
+ * Immutable copy of named regions of the page (a CSS selector each), read in one script, so any number of
+ * assertions run against it without going back to the browser. The script leaves a MutationObserver behind
+ * that marks a region dirty when something inside it changes, an ancestor's attributes change (which may
+ * hide it) or it is replaced; refresh() then reads only the dirty regions and shares the others with this
+ * snapshot. After a navigation every region is read again. Regions missing from the page are null.
+ */
+@SuppressWarnings("try")
+public class PageSnapshot {
+
+    private static final String CAPTURE_SCRIPT = """
+            var tracker = arguments[0], regions = arguments[1];
+            var all = window.__pageSnapshots = window.__pageSnapshots || {};
+            var state = all[tracker];
+            if (!state) {
+                state = all[tracker] = { dirty: {}, nodes: {}, fresh: true };
+                var mark = function (mutations) {
+                    mutations.forEach(function (mutation) {
+                        Object.keys(regions).forEach(function (name) {
+                            var node = state.nodes[name];
+                            if (!node || !node.isConnected || node.contains(mutation.target)
+                                    || mutation.type === 'attributes' && mutation.target.contains(node)) {
+                                state.dirty[name] = true;
+                            }
+                        });
+                    });
+                };
+                state.observer = new MutationObserver(mark);
+                state.observer.observe(document, { subtree: true, childList: true, attributes: true, characterData: true });
+                state.mark = mark;
+            }
+            // Changes made since the last callback are still queued
+            state.mark(state.observer.takeRecords());
+            function serialize(element) {
+                var attributes = {};
+                Array.prototype.forEach.call(element.attributes, function (attribute) {
+                    attributes[attribute.name] = attribute.value;
+                });
+                var text = element.innerText;
+                return {
+                    tag: element.tagName.toLowerCase(),
+                    attributes: attributes,
+                    text: (text === undefined ? element.textContent : text).trim(),
+                    visible: element.getClientRects().length > 0 && window.getComputedStyle(element).visibility !== 'hidden',
+                    children: Array.prototype.map.call(element.children, serialize)
+                };
+            }
+            var read = {};
+            Object.keys(regions).forEach(function (name) {
+                if (state.fresh || state.dirty[name]) {
+                    var node = document.querySelector(regions[name]);
+                    state.nodes[name] = node;
+                    read[name] = node ? serialize(node) : null;
+                    delete state.dirty[name];
+                }
+            });
+            var fresh = state.fresh;
+            state.fresh = false;
+            return { fresh: fresh, regions: read };
+            """;
+
+    public record Node(String tag, Map<String, String> attributes, String text, boolean visible, List<Node> children) {
+
+        public String attribute(String name) {
+            return attributes.get(name);
+        }
+
+        public List<Node> children(String tag) {
+            return children.stream().filter(child -> child.tag.equals(tag)).toList();
+        }
+
+        // Depth-first, this node included
+        public Optional<Node> find(Predicate<Node> predicate) {
+            if (predicate.test(this)) {
+                return Optional.of(this);
+            }
+            for (Node child : children) {
+                Optional<Node> found = child.find(predicate);
+                if (found.isPresent()) {
+                    return found;
+                }
+            }
+            return Optional.empty();
+        }
+
+        private static Node of(Map<?, ?> serialized) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            ((Map<?, ?>) serialized.get("attributes")).forEach((name, value) -> attributes.put((String) name, (String) value));
+            List<Node> children = new ArrayList<>();
+            for (Object child : (List<?>) serialized.get("children")) {
+                children.add(of((Map<?, ?>) child));
+            }
+            return new Node((String) serialized.get("tag"), Map.copyOf(attributes), (String) serialized.get("text"),
+                    Boolean.TRUE.equals(serialized.get("visible")), List.copyOf(children));
+        }
+    }
+
+    private final WebDriver driver;
+    private final String tracker;
+    private final Map<String, String> selectors;
+    private final Map<String, Node> regions;
+
+    private PageSnapshot(WebDriver driver, String tracker, Map<String, String> selectors, Map<String, Node> regions) {
+        this.driver = driver;
+        this.tracker = tracker;
+        this.selectors = selectors;
+        this.regions = regions;
+    }
+
+    // selectors maps region names to CSS selectors, the first match of each is captured
+    public static PageSnapshot capture(WebDriver driver, Map<String, String> selectors) {
+        return new PageSnapshot(driver, UUID.randomUUID().toString(), Map.copyOf(selectors), Map.of()).refresh();
+    }
+
+    public PageSnapshot refresh() {
+        try (Span ignored = Profiler.start(Profiler.PAGE, "PageSnapshot.refresh")) {
+            Map<?, ?> result = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, tracker, selectors);
+            Map<?, ?> read = (Map<?, ?>) result.get("regions");
+            if (read.isEmpty()) {
+                return this;
+            }
+            // The tracker starts over on a new document, then nothing of this snapshot is reused
+            Map<String, Node> next = Boolean.TRUE.equals(result.get("fresh")) ? new HashMap<>() : new HashMap<>(regions);
+            read.forEach((name, node) -> {
+                if (node == null) {
+                    next.remove((String) name);
+                } else {
+                    next.put((String) name, Node.of((Map<?, ?>) node));
+                }
+            });
+            return new PageSnapshot(driver, tracker, selectors, next);
+        }
+    }
+
+    // Refreshes until the snapshot satisfies the predicate, within the condition's adaptive timeout
+    public PageSnapshot awaitUntil(String condition, String message, Predicate<PageSnapshot> predicate) {
+        PageSnapshot[] latest = {this};
+        return AdaptiveWait.on(driver, condition)
+                .withMessage(message)
+                .until(d -> {
+                    latest[0] = latest[0].refresh();
+                    return predicate.test(latest[0]) ? latest[0] : null;
+                });
+    }
+
+    public Node region(String name) {
+        if (!selectors.containsKey(name)) {
+            throw new IllegalArgumentException("No region " + name + " in this snapshot, only " + selectors.keySet());
+        }
+        return regions.get(name);
+    }
+
+    public boolean isVisible(String name) {
+        Node node = region(name);
+        return node != null && node.visible();
+    }
+
+    public String text(String name) {
+        Node node = region(name);
+        return node == null ? null : node.text();
+    }
+}
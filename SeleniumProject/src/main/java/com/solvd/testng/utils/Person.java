@@ -1,19 +1,5 @@
 package com.solvd.testng.utils;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
-public class Person {
-    private String name;
-    private String country;
-    private String city;
-    private String creditCard;
-    private String month;
-    private String year;
+// Checkout details of a buyer, built directly from fixture rows by CheckoutData
+public record Person(String name, String country, String city, String creditCard, String month, String year) {
 }
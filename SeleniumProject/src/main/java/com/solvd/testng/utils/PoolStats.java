@@ -0,0 +1,111 @@
+package com.solvd.testng.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolStats {
+
+    private final String browser;
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder warmUpFailures = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder resourceSamples = new LongAdder();
+    private final LongAdder totalRssBytes = new LongAdder();
+    private final AtomicLong maxRssBytes = new AtomicLong();
+    private final LongAdder totalCpuNanos = new LongAdder();
+
+    PoolStats(String browser) {
+        this.browser = browser;
+    }
+
+    void recordLease(long waitNanos, boolean reuse) {
+        leases.increment();
+        if (reuse) {
+            reused.increment();
+        } else {
+            created.increment();
+        }
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void recordResources(long rssBytes, long cpuNanos) {
+        resourceSamples.increment();
+        totalRssBytes.add(rssBytes);
+        maxRssBytes.accumulateAndGet(rssBytes, Math::max);
+        totalCpuNanos.add(cpuNanos);
+    }
+
+    void recordEviction() {
+        evicted.increment();
+    }
+
+    void recordWarmUpFailure() {
+        warmUpFailures.increment();
+    }
+
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getReused() {
+        return reused.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public long getWarmUpFailures() {
+        return warmUpFailures.sum();
+    }
+
+    public long getAverageWaitMillis() {
+        long count = leases.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / count);
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    // Average RSS of one session's process tree at the end of a lease
+    public long getAverageRssMegabytes() {
+        long count = resourceSamples.sum();
+        return count == 0 ? 0 : totalRssBytes.sum() / count / (1024 * 1024);
+    }
+
+    public long getMaxRssMegabytes() {
+        return maxRssBytes.get() / (1024 * 1024);
+    }
+
+    // Browser-side CPU time one lease costs, to size pools against the cores of the box
+    public long getAverageCpuMillisPerLease() {
+        long count = resourceSamples.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalCpuNanos.sum() / count);
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format("%s: leases=%d, created=%d, reused=%d, evicted=%d, avgWait=%dms, maxWait=%dms",
+                browser, getLeases(), getCreated(), getReused(), getEvicted(),
+                getAverageWaitMillis(), getMaxWaitMillis());
+        if (warmUpFailures.sum() > 0) {
+            summary += ", warmUpFailures=" + warmUpFailures.sum();
+        }
+        if (resourceSamples.sum() == 0) {
+            return summary;
+        }
+        return summary + String.format(", avgRss=%dMB, maxRss=%dMB, avgCpu=%dms/lease",
+                getAverageRssMegabytes(), getMaxRssMegabytes(), getAverageCpuMillisPerLease());
+    }
+}
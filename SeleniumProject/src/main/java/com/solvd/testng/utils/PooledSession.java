@@ -0,0 +1,120 @@
+package com.solvd.testng.utils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+@Slf4j
+@Getter
+public class PooledSession {
+
+    private static final int MAX_ALERTS_TO_DISMISS = 5;
+
+    private final String browser;
+    private final WebDriver driver;
+    private final String sessionId;
+    private final Instant createdAt;
+    private int leaseCount;
+    @Getter(AccessLevel.NONE)
+    private final Optional<BrowserProcess> process;
+    @Getter(AccessLevel.NONE)
+    private Duration measuredCpu = Duration.ZERO;
+    @Getter(AccessLevel.NONE)
+    private final Optional<NetworkTraffic> network;
+
+    // A remote session's pid belongs to the grid node, so only local browsers are measured
+    PooledSession(String browser, WebDriver driver, boolean local) {
+        this.browser = browser;
+        this.driver = driver;
+        this.sessionId = sessionIdOf(driver);
+        this.createdAt = Instant.now();
+        this.process = local ? BrowserProcess.of(driver) : Optional.empty();
+        this.network = NetworkTraffic.attach(driver);
+    }
+
+    // The WebDriver session id where there is one, so logs can be matched with driver and grid logs
+    private static String sessionIdOf(WebDriver driver) {
+        WebDriver original = driver instanceof WrapsDriver wrapper ? wrapper.getWrappedDriver() : driver;
+        if (original instanceof RemoteWebDriver remote && remote.getSessionId() != null) {
+            return remote.getSessionId().toString();
+        }
+        return "local-" + Integer.toHexString(System.identityHashCode(original));
+    }
+
+    void markLeased() {
+        leaseCount++;
+    }
+
+    public int getReuseCount() {
+        return Math.max(0, leaseCount - 1);
+    }
+
+    // Requests, cache hits and bytes since the previous call, for browsers whose traffic is intercepted
+    public Optional<NetworkTraffic.Usage> takeNetworkUsage() {
+        return network.map(NetworkTraffic::takeUsage);
+    }
+
+    // Current RSS of the browser's process tree and the CPU it used since the previous sample
+    Optional<BrowserProcess.Usage> sampleResources() {
+        return process.map(browserProcess -> {
+            BrowserProcess.Usage total = browserProcess.measure();
+            Duration cpu = total.cpu().minus(measuredCpu);
+            measuredCpu = total.cpu();
+            return new BrowserProcess.Usage(total.rssBytes(), cpu.isNegative() ? Duration.ZERO : cpu);
+        });
+    }
+
+    boolean isExpired(Duration maxAge, int maxLeases) {
+        return Duration.between(createdAt, Instant.now()).compareTo(maxAge) > 0
+                || leaseCount >= maxLeases;
+    }
+
+    // One cheap round trip - a crashed browser or a dead driver service fails here
+    boolean isAlive() {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Brings the browser back to a clean state so the next lease does not see the previous test
+    void reset() {
+        dismissAlerts();
+        ((JavascriptExecutor) driver).executeScript(
+                "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+        driver.manage().deleteAllCookies();
+        driver.get("about:blank");
+        DomGeneration.advance(driver);
+    }
+
+    private void dismissAlerts() {
+        for (int i = 0; i < MAX_ALERTS_TO_DISMISS; i++) {
+            try {
+                driver.switchTo().alert().dismiss();
+            } catch (NoAlertPresentException e) {
+                return;
+            }
+        }
+    }
+
+    void destroy() {
+        DomGeneration.forget(driver);
+        network.ifPresent(NetworkTraffic::close);
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            log.warn("Error while quitting {} session: {}", browser, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.solvd.testng.utils;
+
+// Replacement for replaceAll("[^0-9]", "") that walks the characters once and avoids the regex machinery
+public class PriceParser {
+
+    private PriceParser() {
+    }
+
+    public static int parse(CharSequence rawPrice) {
+        int value = 0;
+        boolean found = false;
+        for (int i = 0; i < rawPrice.length(); i++) {
+            char c = rawPrice.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new NumberFormatException("No digits in price: " + rawPrice);
+        }
+        return value;
+    }
+
+    public static String digits(String rawPrice) {
+        int firstNonDigit = indexOfNonDigit(rawPrice);
+        if (firstNonDigit < 0) {
+            return rawPrice;
+        }
+        StringBuilder digits = new StringBuilder(rawPrice.length());
+        digits.append(rawPrice, 0, firstNonDigit);
+        for (int i = firstNonDigit + 1; i < rawPrice.length(); i++) {
+            char c = rawPrice.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static int indexOfNonDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
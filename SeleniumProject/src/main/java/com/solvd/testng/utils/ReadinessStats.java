@@ -0,0 +1,35 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-wait latency histograms, compared against the fixed sleep each wait replaced
+@Slf4j
+public class ReadinessStats {
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> baselineMicros = new ConcurrentHashMap<>();
+
+    public static void record(String waitName, long elapsedNanos, Duration replacedSleep) {
+        histograms.computeIfAbsent(waitName, name -> new LatencyHistogram()).recordNanos(elapsedNanos);
+        baselineMicros.computeIfAbsent(waitName, name -> new LongAdder())
+                .add(TimeUnit.NANOSECONDS.toMicros(replacedSleep.toNanos()));
+    }
+
+    public static LatencyHistogram getHistogram(String waitName) {
+        return histograms.get(waitName);
+    }
+
+    public static void printStats() {
+        histograms.forEach((name, histogram) -> {
+            long savedMillis = TimeUnit.MICROSECONDS.toMillis(
+                    baselineMicros.get(name).sum() - histogram.getTotalMicros());
+            log.info("Readiness wait {}: {}, idle time removed={}ms", name, histogram, savedMillis);
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.pages.LoginPage;
+import com.solvd.testng.profiling.Profiler;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Logs every account in through the UI once per run and replays the resulting cookies and localStorage
+ * into later sessions. A stored session is dropped when it is older than the TTL or when the store
+ * does not greet the user after it was injected, and the next call logs in through the UI again.
+ */
+public class SessionCache {
+
+    private static final Duration TTL = Duration.ofMinutes(Long.getLong("session.ttlMinutes", 30));
+    // Long enough for the page's token check, short enough that a stale session falls back to the UI login quickly
+    private static final Duration RESTORE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final String READ_STORAGE_SCRIPT = """
+            var entries = {};
+            for (var i = 0; i < window.localStorage.length; i++) {
+                var key = window.localStorage.key(i);
+                entries[key] = window.localStorage.getItem(key);
+            }
+            return entries;
+            """;
+    private static final String WRITE_STORAGE_SCRIPT = """
+            var entries = arguments[0];
+            Object.keys(entries).forEach(function (key) { window.localStorage.setItem(key, entries[key]); });
+            """;
+
+    private record StoredSession(Set<Cookie> cookies, Map<String, String> localStorage, Instant createdAt) {
+
+        boolean isExpired() {
+            return Instant.now().isAfter(createdAt.plus(TTL));
+        }
+    }
+
+    private static final Map<String, StoredSession> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, ReentrantLock> loginLocks = new ConcurrentHashMap<>();
+
+    public static void login(WebDriver driver, String username, String password) {
+        Profiler.time(Profiler.STEP, "SessionCache.login", () -> restoreOrLogin(driver, username, password));
+    }
+
+    private static void restoreOrLogin(WebDriver driver, String username, String password) {
+        StoredSession stored = sessions.get(username);
+        if (stored != null && !stored.isExpired() && restore(driver, stored, username)) {
+            return;
+        }
+
+        // Only one thread logs a given account in, the others wait and reuse its session
+        ReentrantLock lock = loginLocks.computeIfAbsent(username, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            StoredSession current = sessions.get(username);
+            if (current != null && current != stored && !current.isExpired() && restore(driver, current, username)) {
+                return;
+            }
+            sessions.remove(username);
+            uiLogin(driver, username, password);
+            sessions.put(username, capture(driver));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void invalidate(String username) {
+        sessions.remove(username);
+    }
+
+    private static void uiLogin(WebDriver driver, String username, String password) {
+        LoginPage loginPage = new LoginPage(driver);
+        loginPage.open();
+        loginPage.openLoginModal();
+        loginPage.login(username, password);
+
+        AdaptiveWait.on(driver, "SessionCache.loggedIn")
+                .withMessage("User " + username + " was not logged in!")
+                .until(d -> isGreeted(loginPage, username));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StoredSession capture(WebDriver driver) {
+        Map<String, String> storage = (Map<String, String>) ((JavascriptExecutor) driver)
+                .executeScript(READ_STORAGE_SCRIPT);
+        return new StoredSession(Set.copyOf(driver.manage().getCookies()), Map.copyOf(storage), Instant.now());
+    }
+
+    private static boolean restore(WebDriver driver, StoredSession stored, String username) {
+        // Cookies can only be set for the current origin, so land on a cheap page of the store first
+        driver.get(StoreConfig.pageUrl("favicon.ico"));
+        stored.cookies().forEach(cookie -> driver.manage().addCookie(cookie));
+        ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE_SCRIPT, stored.localStorage());
+
+        LoginPage loginPage = new LoginPage(driver);
+        loginPage.open();
+        try {
+            AdaptiveWait.on(driver, "SessionCache.restored")
+                    .withFixedTimeout(RESTORE_TIMEOUT)
+                    .until(d -> isGreeted(loginPage, username));
+            return true;
+        } catch (TimeoutException e) {
+            sessions.remove(username, stored);
+            return false;
+        }
+    }
+
+    private static boolean isGreeted(LoginPage loginPage, String username) {
+        return loginPage.getWelcomeTextElement().isDisplayed()
+                && loginPage.getWelcomeText().equals("Welcome " + username);
+    }
+}
@@ -0,0 +1,196 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.profiling.Profiler;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Bounded pool of warm sessions for a single browser type; every browser it runs also counts against the
+// capacity shared with the pools of the other types
+@Slf4j
+class SessionPool {
+
+    private final String browser;
+    private final Supplier<WebDriver> driverFactory;
+    private final Duration maxAge;
+    private final int maxLeases;
+    private final Semaphore permits;
+    private final SharedCapacity shared;
+    private final BlockingDeque<PooledSession> idle = new LinkedBlockingDeque<>();
+    private final PoolStats stats;
+
+    SessionPool(String browser, Supplier<WebDriver> driverFactory, int capacity, SharedCapacity shared,
+                Duration maxAge, int maxLeases) {
+        this.browser = browser;
+        this.driverFactory = driverFactory;
+        this.maxAge = maxAge;
+        this.maxLeases = maxLeases;
+        this.permits = new Semaphore(capacity, true);
+        this.shared = shared;
+        this.stats = new PoolStats(browser);
+        shared.register(this);
+    }
+
+    PooledSession checkout(Duration timeout) {
+        return Profiler.time(Profiler.POOL, "lease " + browser, () -> lease(timeout));
+    }
+
+    private PooledSession lease(Duration timeout) {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No " + browser + " session became available in " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + browser + " session", e);
+        }
+
+        try {
+            PooledSession session = takeHealthyIdleSession();
+            boolean reuse = session != null;
+            if (session == null) {
+                Duration left = timeout.minusNanos(System.nanoTime() - start);
+                try {
+                    shared.acquire(this, left.isNegative() ? Duration.ZERO : left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for room for a " + browser + " session", e);
+                }
+                session = Profiler.time(Profiler.STARTUP, "start " + browser, this::startSession);
+            }
+            session.markLeased();
+            stats.recordLease(System.nanoTime() - start, reuse);
+            return session;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(PooledSession session) {
+        try {
+            recordResources(session);
+            // Another browser type is waiting for room, so this one is closed rather than kept idle
+            if (session.isExpired(maxAge, maxLeases) || shared.isContended()) {
+                evict(session);
+                return;
+            }
+            try {
+                session.reset();
+            } catch (RuntimeException e) {
+                evict(session);
+                return;
+            }
+            idle.offerFirst(session);
+        } finally {
+            permits.release();
+        }
+    }
+
+    void evictLeased(PooledSession session) {
+        try {
+            recordResources(session);
+            evict(session);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Sessions created here sit idle, so they do not hold a permit until they are leased. A session that fails to
+    // start is logged and counted; the tests start that browser on checkout instead
+    void warmUp(int sessions) {
+        int missing = Math.min(sessions, permits.availablePermits()) - idle.size();
+        List<Future<Boolean>> started = new ArrayList<>();
+        // Browsers start in parallel so the warm-up costs roughly one startup
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < missing && shared.tryAcquire(); i++) {
+                started.add(executor.submit(() -> idle.offerLast(startSession())));
+            }
+        }
+        int failed = 0;
+        for (Future<Boolean> future : started) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed++;
+                stats.recordWarmUpFailure();
+                log.warn("Could not warm up a {} session: {}", browser, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!started.isEmpty()) {
+            log.info("Warmed up {} of {} {} sessions", started.size() - failed, started.size(), browser);
+        }
+    }
+
+    // Closes the longest idle browser to make room for another type, see SharedCapacity
+    boolean closeIdle() {
+        PooledSession session = idle.pollLast();
+        if (session == null) {
+            return false;
+        }
+        evict(session);
+        return true;
+    }
+
+    void shutdown() {
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            session.destroy();
+            shared.release();
+        }
+    }
+
+    PoolStats getStats() {
+        return stats;
+    }
+
+    private PooledSession takeHealthyIdleSession() {
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            if (!session.isExpired(maxAge, maxLeases) && session.isAlive()) {
+                return session;
+            }
+            evict(session);
+        }
+        return null;
+    }
+
+    private void recordResources(PooledSession session) {
+        session.sampleResources().ifPresent(usage -> stats.recordResources(usage.rssBytes(), usage.cpu().toNanos()));
+    }
+
+    // The caller holds a permit of the shared capacity, which is released if the browser fails to start
+    private PooledSession startSession() {
+        try {
+            return new PooledSession(browser, driverFactory.get(), DriverPool.isLocal());
+        } catch (RuntimeException e) {
+            shared.release();
+            throw e;
+        }
+    }
+
+    private void evict(PooledSession session) {
+        stats.recordEviction();
+        try {
+            session.destroy();
+        } finally {
+            shared.release();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.solvd.testng.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Upper bound on the browsers running at once across all SessionPools, idle ones included. A pool that
+ * needs a new browser while the bound is reached first makes another pool close an idle browser; failing
+ * that it waits, and pools hand released browsers over (close them) instead of keeping them idle while
+ * someone waits. With a single browser type the per-browser limits keep it below the bound anyway.
+ */
+class SharedCapacity {
+
+    private final int capacity;
+    private final Semaphore running;
+    private final List<SessionPool> pools = new CopyOnWriteArrayList<>();
+
+    SharedCapacity(int capacity) {
+        this.capacity = capacity;
+        this.running = new Semaphore(capacity, true);
+    }
+
+    void register(SessionPool pool) {
+        pools.add(pool);
+    }
+
+    // Without waiting, e.g. for warm-up sessions
+    boolean tryAcquire() {
+        return running.tryAcquire();
+    }
+
+    void acquire(SessionPool requester, Duration timeout) throws InterruptedException {
+        if (running.tryAcquire()) {
+            return;
+        }
+        for (SessionPool pool : pools) {
+            if (pool != requester && pool.closeIdle() && running.tryAcquire()) {
+                return;
+            }
+        }
+        if (!running.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("No room for another browser within " + timeout + ", all " + capacity
+                    + " are in use");
+        }
+    }
+
+    void release() {
+        running.release();
+    }
+
+    boolean isContended() {
+        return running.hasQueuedThreads();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,63 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Test accounts the suite makes up, e.g. one per browser of the matrix. The real store needs an account signed
+ * up before it can log in (with the password base64 encoded, as its page sends it); signing up one that exists
+ * already only answers with an error message. The stand-in registers unknown accounts on their first login.
+ */
+@Slf4j
+public class StoreAccounts {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Json JSON = new Json();
+
+    private static final HttpClient http = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    private static final Map<String, Boolean> signedUp = new ConcurrentHashMap<>();
+
+    private StoreAccounts() {
+    }
+
+    // Once per account and JVM; tests asking for the same account meanwhile wait for it
+    public static void ensure(String username, String password) {
+        if (!StoreConfig.isLocal()) {
+            signedUp.computeIfAbsent(username, name -> signUp(name, password));
+        }
+    }
+
+    // Null when the store was not reachable, so the next test tries again
+    private static Boolean signUp(String username, String password) {
+        String body = JSON.toJson(Map.of("username", username,
+                "password", Base64.getEncoder().encodeToString(password.getBytes(StandardCharsets.UTF_8))));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(StoreConfig.apiUrl() + "signup"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            log.info("Signed up {}: {}", username, response.body().isBlank() ? "created" : response.body());
+            return Boolean.TRUE;
+        } catch (IOException e) {
+            // Logging in says whether the account is there after all
+            log.warn("Could not sign up {}: {}", username, e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.solvd.testng.utils;
+
+import com.solvd.testng.stub.DemoStoreServer;
+
+/*
+ * Where the store under test lives. By default the suite talks to the public demoblaze site;
+ * -Dstore.url=local starts the in-process stand-in once per JVM, and any other value is used as the
+ * base URL of an already running store (its API is expected under <base>/api/ unless -Dstore.api is set).
+ */
+public class StoreConfig {
+
+    private static final String DEFAULT_URL = "https://www.demoblaze.com/";
+    private static final String DEFAULT_API_URL = "https://api.demoblaze.com/";
+    private static final String LOCAL = "local";
+
+    private static final String BASE_URL = resolveBaseUrl();
+    private static final String API_URL = resolveApiUrl();
+
+    private StoreConfig() {
+    }
+
+    public static String baseUrl() {
+        return BASE_URL;
+    }
+
+    public static String apiUrl() {
+        return API_URL;
+    }
+
+    public static String pageUrl(String page) {
+        return BASE_URL + page;
+    }
+
+    public static boolean isLocal() {
+        return LOCAL.equalsIgnoreCase(System.getProperty("store.url"));
+    }
+
+    private static String resolveBaseUrl() {
+        String configured = System.getProperty("store.url");
+        if (configured == null || configured.isBlank()) {
+            return DEFAULT_URL;
+        }
+        if (LOCAL.equalsIgnoreCase(configured)) {
+            return LocalServer.INSTANCE.getBaseUrl();
+        }
+        return withTrailingSlash(configured);
+    }
+
+    private static String resolveApiUrl() {
+        String configured = System.getProperty("store.api");
+        if (configured != null && !configured.isBlank()) {
+            return withTrailingSlash(configured);
+        }
+        return DEFAULT_URL.equals(BASE_URL) ? DEFAULT_API_URL : BASE_URL + "api/";
+    }
+
+    private static String withTrailingSlash(String url) {
+        return url.endsWith("/") ? url : url + "/";
+    }
+
+    // Started on first use only, so runs against the real site never bind a port
+    private static class LocalServer {
+        private static final DemoStoreServer INSTANCE = DemoStoreServer.startShared();
+    }
+}
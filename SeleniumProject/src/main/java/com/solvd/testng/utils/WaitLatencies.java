@@ -0,0 +1,163 @@
+package com.solvd.testng.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * How long each named wait condition took to come true, in this run and in earlier ones. The percentiles
+ * are kept in -Dwait.stats (target/wait-latencies.properties by default) as "<condition>=<samples>,<p50>,<p99>"
+ * in microseconds, and AdaptiveWait derives its polling interval and timeout from them.
+ */
+@Slf4j
+public class WaitLatencies {
+
+    private static final Path FILE = Path.of(System.getProperty("wait.stats", "target/wait-latencies.properties"));
+    private static final int MIN_SAMPLES = 5;
+
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(Long.getLong("wait.defaultSeconds", 10));
+    private static final Duration DEFAULT_POLL = Duration.ofMillis(50);
+    private static final Duration MIN_POLL = Duration.ofMillis(10);
+    private static final Duration MAX_POLL = Duration.ofSeconds(1);
+    private static final Duration MIN_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(30);
+
+    record Observed(long samples, long p50Micros, long p99Micros) {
+    }
+
+    record Policy(Duration initialPoll, Duration maxPoll, Duration timeout) {
+    }
+
+    private static final Map<String, Observed> previousRuns = load();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+    private static final Map<String, Duration> widenedTimeouts = new ConcurrentHashMap<>();
+
+    private WaitLatencies() {
+    }
+
+    public static void record(String condition, long elapsedNanos) {
+        histograms.computeIfAbsent(condition, name -> new LatencyHistogram()).recordNanos(elapsedNanos);
+    }
+
+    /*
+     * The condition took at least the timeout, so that counts as a sample too, and until the percentiles catch up
+     * the condition's next waits get twice the timeout that was too short.
+     */
+    public static void recordTimeout(String condition, Duration timeout) {
+        timeouts.computeIfAbsent(condition, name -> new LongAdder()).increment();
+        record(condition, timeout.toNanos());
+        Duration widened = clamp(timeout.multipliedBy(2), MIN_TIMEOUT, MAX_TIMEOUT);
+        widenedTimeouts.merge(condition, widened, WaitLatencies::max);
+    }
+
+    /*
+     * Polls start at an eighth of the median and double up to a quarter of p99, so fast conditions are
+     * seen almost at once and slow ones are not hammered. The timeout is four times p99, kept between 2 s
+     * and 30 s. Conditions with fewer than five samples get the old fixed 10 s wait with 50 ms polling. After a
+     * timeout in this run the timeout is at least double the one that ran out.
+     */
+    static Policy policyFor(String condition) {
+        Observed observed = observed(condition);
+        Duration widened = widenedTimeouts.getOrDefault(condition, Duration.ZERO);
+        if (observed == null) {
+            return new Policy(DEFAULT_POLL, DEFAULT_POLL.multipliedBy(10), max(DEFAULT_TIMEOUT, widened));
+        }
+        Duration initialPoll = clamp(Duration.ofNanos(observed.p50Micros() * 1000 / 8), MIN_POLL, DEFAULT_POLL.multipliedBy(4));
+        Duration maxPoll = clamp(Duration.ofNanos(observed.p99Micros() * 1000 / 4), initialPoll, MAX_POLL);
+        Duration timeout = clamp(Duration.ofNanos(observed.p99Micros() * 1000 * 4), MIN_TIMEOUT, MAX_TIMEOUT);
+        return new Policy(initialPoll, maxPoll, max(timeout, widened));
+    }
+
+    // For waits with a timeout of their own, which neither use nor feed the latencies
+    static Policy fixed(Duration timeout) {
+        return new Policy(DEFAULT_POLL, DEFAULT_POLL.multipliedBy(4), timeout);
+    }
+
+    // This run's own numbers win once it has enough of them
+    private static Observed observed(String condition) {
+        LatencyHistogram histogram = histograms.get(condition);
+        if (histogram != null && histogram.getCount() >= MIN_SAMPLES) {
+            return new Observed(histogram.getCount(), histogram.getPercentileMicros(50), histogram.getPercentileMicros(99));
+        }
+        Observed previous = previousRuns.get(condition);
+        return previous != null && previous.samples() >= MIN_SAMPLES ? previous : null;
+    }
+
+    public static void save() {
+        Map<String, Observed> merged = new TreeMap<>(previousRuns);
+        histograms.forEach((condition, histogram) -> {
+            Observed previous = merged.get(condition);
+            if (previous == null || histogram.getCount() >= MIN_SAMPLES) {
+                merged.put(condition, new Observed(histogram.getCount(),
+                        histogram.getPercentileMicros(50), histogram.getPercentileMicros(99)));
+            }
+        });
+        Properties properties = new Properties();
+        merged.forEach((condition, observed) -> properties.setProperty(condition,
+                observed.samples() + "," + observed.p50Micros() + "," + observed.p99Micros()));
+        try {
+            Files.createDirectories(FILE.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Observed wait latencies: samples,p50,p99 in microseconds");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save wait latencies to " + FILE, e);
+        }
+    }
+
+    public static void printStats() {
+        new TreeMap<>(histograms).forEach((condition, histogram) -> {
+            LongAdder timedOut = timeouts.get(condition);
+            log.info("Wait {}: {}, timeouts={}, next timeout={}ms", condition, histogram,
+                    timedOut == null ? 0 : timedOut.sum(), policyFor(condition).timeout().toMillis());
+        });
+    }
+
+    private static Map<String, Observed> load() {
+        Map<String, Observed> loaded = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(FILE)) {
+            return loaded;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(FILE, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable wait latencies {}: {}", FILE, e.getMessage());
+            return loaded;
+        }
+        for (String condition : properties.stringPropertyNames()) {
+            String[] fields = properties.getProperty(condition).split(",");
+            try {
+                loaded.put(condition, new Observed(Long.parseLong(fields[0].trim()),
+                        Long.parseLong(fields[1].trim()), Long.parseLong(fields[2].trim())));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed wait latency for {}", condition);
+            }
+        }
+        return loaded;
+    }
+
+    private static Duration max(Duration first, Duration second) {
+        return first.compareTo(second) >= 0 ? first : second;
+    }
+
+    private static Duration clamp(Duration value, Duration min, Duration max) {
+        if (value.compareTo(min) < 0) {
+            return min;
+        }
+        return value.compareTo(max) > 0 ? max : value;
+    }
+}
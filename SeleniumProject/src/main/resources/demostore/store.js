@@ -0,0 +1,190 @@
+var API = 'api/';
+
+function getCookie(name) {
+    var match = document.cookie.match(new RegExp('(?:^|; )' + name + '=([^;]*)'));
+    return match ? decodeURIComponent(match[1]) : null;
+}
+
+function setCookie(name, value) {
+    document.cookie = name + '=' + encodeURIComponent(value) + '; path=/';
+}
+
+function randomId() {
+    if (window.crypto && window.crypto.randomUUID) {
+        return window.crypto.randomUUID();
+    }
+    return Date.now().toString(16) + '-' + Math.random().toString(16).slice(2);
+}
+
+function api(endpoint, body) {
+    return fetch(API + endpoint, {
+        method: body ? 'POST' : 'GET',
+        headers: { 'Content-Type': 'application/json' },
+        body: body ? JSON.stringify(body) : undefined
+    }).then(function (response) { return response.json(); });
+}
+
+function cartOwner() {
+    var token = getCookie('tokenp_');
+    if (token) {
+        return { cookie: token, flag: true };
+    }
+    var user = getCookie('user');
+    if (!user) {
+        user = randomId();
+        setCookie('user', user);
+    }
+    return { cookie: user, flag: false };
+}
+
+function showModal(selector) {
+    var modal = document.querySelector(selector);
+    if (modal) {
+        modal.classList.add('show');
+    }
+}
+
+function hideModals() {
+    document.querySelectorAll('.modal.show').forEach(function (modal) { modal.classList.remove('show'); });
+}
+
+function logIn() {
+    var username = document.getElementById('loginusername').value;
+    var password = document.getElementById('loginpassword').value;
+    api('login', { username: username, password: password }).then(function (response) {
+        if (typeof response === 'string' && response.indexOf('Auth_token: ') === 0) {
+            setCookie('tokenp_', response.substring('Auth_token: '.length));
+            window.location.href = 'index.html';
+        } else {
+            alert(response.errorMessage);
+        }
+    });
+}
+
+function logOut() {
+    document.cookie = 'tokenp_=; path=/; expires=Thu, 01 Jan 1970 00:00:00 GMT';
+    window.location.href = 'index.html';
+}
+
+function showUser() {
+    var token = getCookie('tokenp_');
+    if (!token) {
+        return;
+    }
+    api('check', { token: token }).then(function (response) {
+        if (!response.Item) {
+            return;
+        }
+        var welcome = document.getElementById('nameofuser');
+        welcome.textContent = 'Welcome ' + response.Item.username;
+        welcome.style.display = 'block';
+        document.getElementById('logout2').style.display = 'block';
+        document.getElementById('login2').style.display = 'none';
+    });
+}
+
+function loadCatalog() {
+    api('entries').then(function (response) {
+        var html = response.Items.map(function (item) {
+            var link = 'prod.html?idp_=' + item.id;
+            return '<div class="col-lg-4 col-md-6 mb-4"><div class="card h-100">'
+                + '<div class="card-block">'
+                + '<h4 class="card-title"><a href="' + link + '" class="hrefch">' + item.title + '</a></h4>'
+                + '<h5>$' + item.price + '</h5>'
+                + '<p class="card-text" id="article">' + item.desc + '</p>'
+                + '</div></div></div>';
+        }).join('');
+        document.getElementById('tbodyid').innerHTML = html;
+    });
+}
+
+function loadProduct() {
+    var id = new URLSearchParams(window.location.search).get('idp_');
+    api('view', { id: id }).then(function (item) {
+        document.getElementById('tbodyid').innerHTML = '<h2 class="name">' + item.title + '</h2>'
+            + '<h3 class="price-container">$' + item.price + '<small> *includes tax</small></h3>'
+            + '<div id="more-information"><p>' + item.desc + '</p></div>'
+            + '<div class="row"><div class="col-sm-12 col-md-6 col-lg-6">'
+            + '<a href="#" onclick="addToCart(' + item.id + ')" class="btn btn-success btn-lg">Add to cart</a>'
+            + '</div></div>';
+    });
+}
+
+function addToCart(productId) {
+    var owner = cartOwner();
+    api('addtocart', { id: randomId(), cookie: owner.cookie, prod_id: productId, flag: owner.flag })
+        .then(function () { alert('Product added.'); });
+    return false;
+}
+
+function loadCart() {
+    var owner = cartOwner();
+    api('viewcart', owner).then(function (response) {
+        return Promise.all(response.Items.map(function (item) {
+            return api('view', { id: item.prod_id }).then(function (product) {
+                return { id: item.id, product: product };
+            });
+        }));
+    }).then(function (rows) {
+        var total = 0;
+        document.getElementById('tbodyid').innerHTML = rows.map(function (row) {
+            total += row.product.price;
+            return '<tr class="success"><td></td><td>' + row.product.title + '</td><td>' + row.product.price + '</td>'
+                + '<td><a href="#" onclick="deleteItem(\'' + row.id + '\')">Delete</a></td></tr>';
+        }).join('');
+        document.getElementById('totalp').textContent = rows.length ? String(total) : '';
+    });
+}
+
+function deleteItem(id) {
+    api('deleteitem', { id: id }).then(loadCart);
+    return false;
+}
+
+function purchaseOrder() {
+    var field = function (id) { return document.getElementById(id).value; };
+    if (!field('name') || !field('card')) {
+        alert('Please fill out Name and Creditcard.');
+        return;
+    }
+    var order = cartOwner();
+    ['name', 'country', 'city', 'card', 'month', 'year'].forEach(function (id) { order[id] = field(id); });
+    api('order', order).then(function (response) {
+        if (response.errorMessage) {
+            alert(response.errorMessage);
+            return;
+        }
+        hideModals();
+        var now = new Date();
+        document.getElementById('purchaseDetails').innerHTML = 'Id: ' + response.id
+            + '<br>Amount: ' + response.amount + ' USD'
+            + '<br>Card Number: ' + order.card
+            + '<br>Name: ' + order.name
+            + '<br>Date: ' + now.getDate() + '/' + (now.getMonth() + 1) + '/' + now.getFullYear();
+        document.querySelector('.sweet-alert').classList.add('visible');
+    });
+}
+
+document.addEventListener('click', function (event) {
+    var trigger = event.target.closest('[data-target]');
+    if (trigger) {
+        event.preventDefault();
+        showModal(trigger.getAttribute('data-target'));
+    } else if (event.target.closest('[data-dismiss="modal"]')) {
+        hideModals();
+    } else if (event.target.closest('.sweet-alert .confirm')) {
+        window.location.href = 'index.html';
+    }
+});
+
+document.addEventListener('DOMContentLoaded', function () {
+    showUser();
+    var page = document.body.getAttribute('data-page');
+    if (page === 'index') {
+        loadCatalog();
+    } else if (page === 'product') {
+        loadProduct();
+    } else if (page === 'cart') {
+        loadCart();
+    }
+});
@@ -0,0 +1,81 @@
+package com.solvd.pageobjectpattern;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITest;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.DataProvider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Runs every test once per browser in one suite run. The browser parameter (or -Dbrowsers) takes a comma
+ * separated list, e.g. chrome,firefox:headless,edge; the @Factory of a test class creates one instance per
+ * entry. All instances lease from the same DriverPool, so -Dpool.size bounds the browsers of all types
+ * together and -Dpool.limit.<browser> a single type. The interceptor deals the tests out round-robin over
+ * the browsers, keeping each browser's own order, so the first tests start browsers of every type at once.
+ *
+ * The same test then runs in several browsers at the same time, and the store keeps carts per account, so with
+ * more than one browser each uses its own accounts (see accountFor) instead of emptying the others' carts.
+ */
+public class BrowserMatrix implements IMethodInterceptor {
+
+    // The browser and how many browsers the matrix has
+    @DataProvider(name = "browsers")
+    public static Object[][] browsers(ITestContext context) {
+        List<String> browsers = browsersOf(context);
+        return browsers.stream().map(browser -> new Object[]{browser, browsers.size()}).toArray(Object[][]::new);
+    }
+
+    // jakub in a chrome,firefox:headless matrix becomes jakub-chrome and jakub-firefox-headless
+    static String accountFor(String username, String browser, int browsers) {
+        return browsers > 1 ? username + "-" + browser.replace(':', '-') : username;
+    }
+
+    static List<String> browsersOf(ITestContext context) {
+        String parameter = context.getCurrentXmlTest().getParameter("browser");
+        return browsersOf(parameter == null ? "chrome" : parameter);
+    }
+
+    static List<String> browsersOf(String parameter) {
+        return Arrays.stream(System.getProperty("browsers", parameter).split(","))
+                .map(String::trim)
+                .filter(browser -> !browser.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Map<String, Deque<IMethodInstance>> byBrowser = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            byBrowser.computeIfAbsent(String.valueOf(browserOf(method.getMethod())), key -> new ArrayDeque<>())
+                    .add(method);
+        }
+        List<IMethodInstance> interleaved = new ArrayList<>(methods.size());
+        while (interleaved.size() < methods.size()) {
+            byBrowser.values().stream()
+                    .filter(queue -> !queue.isEmpty())
+                    .forEach(queue -> interleaved.add(queue.poll()));
+        }
+        return interleaved;
+    }
+
+    // Null for test classes that are not expanded over browsers
+    static String browserOf(ITestNGMethod method) {
+        return method.getInstance() instanceof ITest test ? test.getTestName() : null;
+    }
+
+    static String nameOf(ITestNGMethod method) {
+        String name = method.getRealClass().getName() + "." + method.getMethodName();
+        String browser = browserOf(method);
+        return browser == null ? name : name + "[" + browser + "]";
+    }
+}
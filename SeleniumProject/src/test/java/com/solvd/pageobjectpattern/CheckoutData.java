@@ -0,0 +1,70 @@
+package com.solvd.pageobjectpattern;
+
+import com.solvd.testng.utils.Person;
+import org.testng.annotations.DataProvider;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Checkout scenarios streamed from -Ddata.checkout (data/checkout.csv on the test classpath by default,
+ * a .jsonl file works too). Columns: username, password, name, country, city, creditCard, month, year and
+ * products, the catalog indexes to buy separated by ';' (or a JSON array). Every row becomes one invocation.
+ * Rows run in parallel, each with its own account so their carts don't mix; in a browser matrix every browser
+ * gets its own copy of the account, see BrowserMatrix.accountFor.
+ */
+public class CheckoutData {
+
+    public record CheckoutCase(String username, String password, Person person, List<Integer> products) {
+
+        @Override
+        public String toString() {
+            return username + " buys " + products;
+        }
+    }
+
+    // TestNG collects the invocations of a parallel provider before it schedules them, so the file is
+    // parsed row by row but the parsed cases of one run are held together
+    @DataProvider(name = "checkouts", parallel = true)
+    public static Iterator<Object[]> checkouts() {
+        FixtureRows rows = FixtureRows.open(System.getProperty("data.checkout", "data/checkout.csv"));
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{toCase(rows.next())};
+            }
+        };
+    }
+
+    private static CheckoutCase toCase(Map<String, Object> row) {
+        Person person = new Person(text(row, "name"), text(row, "country"), text(row, "city"),
+                text(row, "creditCard"), text(row, "month"), text(row, "year"));
+        return new CheckoutCase(text(row, "username"), text(row, "password"), person, indexes(row.get("products")));
+    }
+
+    private static String text(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Checkout row without " + column + ": " + row);
+        }
+        return String.valueOf(value);
+    }
+
+    private static List<Integer> indexes(Object value) {
+        if (value instanceof Collection<?> list) {
+            return list.stream().map(index -> ((Number) index).intValue()).toList();
+        }
+        if (value == null || String.valueOf(value).isBlank()) {
+            throw new IllegalArgumentException("Checkout row without products");
+        }
+        return Arrays.stream(String.valueOf(value).split(";")).map(String::trim).map(Integer::valueOf).toList();
+    }
+}
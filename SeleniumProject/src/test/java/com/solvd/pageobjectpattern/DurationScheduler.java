@@ -0,0 +1,124 @@
+package com.solvd.pageobjectpattern;
+
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Starts the longest tests first (LPT), using the durations of earlier runs, so a long test does not start
+ * last and stretch the end of the run. With -Dshard=i/N (1 <= i <= N) only the i-th of N shards runs: tests
+ * are dealt longest-first to whichever shard has the least work so far. Tests without history count as the
+ * median of the known ones.
+ *
+ * Every shard has to compute the same split, so it is taken from -Dshard.durations
+ * (target/shard-durations.properties), a copy of the durations made before the shards start, and not from the
+ * file that finishing shards write to. Without the copy all tests count the same and are dealt by name.
+ */
+@Slf4j
+public class DurationScheduler implements IMethodInterceptor, ITestListener, ISuiteListener {
+
+    private static final long UNKNOWN_MILLIS = 30_000;
+    private static final Pattern SHARD = Pattern.compile("\\s*(\\d+)\\s*/\\s*(\\d+)\\s*");
+
+    private final TestDurations history = TestDurations.load();
+    private final Map<String, Long> observed = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        String shard = System.getProperty("shard");
+        if (shard == null || shard.isBlank()) {
+            return longestFirst(methods, history);
+        }
+        Matcher matcher = SHARD.matcher(shard);
+        int index = matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+        int count = matcher.matches() ? Integer.parseInt(matcher.group(2)) : 0;
+        if (index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be i/N with 1 <= i <= N, got " + shard);
+        }
+
+        Path snapshotFile = Path.of(System.getProperty("shard.durations", "target/shard-durations.properties"));
+        if (!Files.isRegularFile(snapshotFile)) {
+            log.warn("No durations snapshot {}, splitting as if all tests took equally long", snapshotFile);
+        }
+        TestDurations snapshot = TestDurations.load(snapshotFile);
+        long unknown = unknownOf(snapshot);
+        long[] load = new long[count];
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : longestFirst(methods, snapshot)) {
+            int lightest = 0;
+            for (int i = 1; i < count; i++) {
+                if (load[i] < load[lightest]) {
+                    lightest = i;
+                }
+            }
+            load[lightest] += estimate(snapshot, method, unknown);
+            if (lightest == index - 1) {
+                selected.add(method);
+            }
+        }
+        log.info("Shard {}: {} of {} tests, about {}s", shard, selected.size(), methods.size(),
+                String.format("%.1f", load[index - 1] / 1000.0));
+        // Within the shard the latest durations only change the order
+        return longestFirst(selected, history);
+    }
+
+    private static List<IMethodInstance> longestFirst(List<IMethodInstance> methods, TestDurations durations) {
+        long unknown = unknownOf(durations);
+        List<IMethodInstance> sorted = new ArrayList<>(methods);
+        sorted.sort(Comparator.<IMethodInstance>comparingLong(method -> estimate(durations, method, unknown)).reversed()
+                .thenComparing(method -> nameOf(method.getMethod())));
+        return sorted;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        history.save(observed);
+    }
+
+    // The rows of a data-driven test run as one method instance, so its cost is all of them together
+    private void record(ITestResult result) {
+        observed.merge(nameOf(result.getMethod()), result.getEndMillis() - result.getStartMillis(), Long::sum);
+    }
+
+    private static long estimate(TestDurations durations, IMethodInstance method, long unknown) {
+        Long known = durations.get(nameOf(method.getMethod()));
+        return known != null ? known : unknown;
+    }
+
+    // The median of the known durations
+    private static long unknownOf(TestDurations durations) {
+        List<Long> sorted = durations.asMap().values().stream().sorted().toList();
+        return sorted.isEmpty() ? UNKNOWN_MILLIS : sorted.get(sorted.size() / 2);
+    }
+
+    // Per browser for matrix runs, a test's duration differs between them
+    private static String nameOf(ITestNGMethod method) {
+        return BrowserMatrix.nameOf(method);
+    }
+}
@@ -0,0 +1,186 @@
+package com.solvd.pageobjectpattern;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/*
+ * Reads a CSV (first line is the header) or JSONL fixture one record at a time, so a file with millions of
+ * rows costs no more memory than a single row. The location is a file path or, failing that, a test
+ * classpath resource; the format follows the extension. The reader is closed after the last row.
+ */
+class FixtureRows implements Iterator<Map<String, Object>>, AutoCloseable {
+
+    private static final Json JSON = new Json();
+
+    private final String location;
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final List<String> header;
+    private int lineNumber;
+    private Map<String, Object> next;
+
+    private FixtureRows(String location, BufferedReader reader) {
+        this.location = location;
+        this.reader = reader;
+        this.csv = location.toLowerCase().endsWith(".csv");
+        this.header = csv ? readCsvRecord() : null;
+        if (csv && header == null) {
+            throw new IllegalArgumentException("Fixture " + location + " has no header line");
+        }
+        this.next = readRow();
+    }
+
+    static FixtureRows open(String location) {
+        try {
+            Path file = Path.of(location);
+            InputStream in = Files.isRegularFile(file)
+                    ? Files.newInputStream(file)
+                    : FixtureRows.class.getClassLoader().getResourceAsStream(location);
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture file or resource " + location);
+            }
+            return new FixtureRows(location, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open fixture " + location, e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (next == null) {
+            throw new NoSuchElementException(location);
+        }
+        Map<String, Object> row = next;
+        next = readRow();
+        return row;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // Nothing is written, so there is nothing to lose
+        }
+    }
+
+    private Map<String, Object> readRow() {
+        Map<String, Object> row = csv ? readCsvRow() : readJsonRow();
+        if (row == null) {
+            close();
+        }
+        return row;
+    }
+
+    private Map<String, Object> readCsvRow() {
+        List<String> values;
+        do {
+            values = readCsvRecord();
+        } while (values != null && values.size() == 1 && values.get(0).isBlank());
+        if (values == null) {
+            return null;
+        }
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException(location + ":" + lineNumber + " has " + values.size()
+                    + " values but the header has " + header.size());
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            row.put(header.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    private Map<String, Object> readJsonRow() {
+        String line;
+        do {
+            line = readLine();
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            return null;
+        }
+        try {
+            return JSON.toType(line, Json.MAP_TYPE);
+        } catch (JsonException e) {
+            throw new IllegalArgumentException(location + ":" + lineNumber + " is not a JSON object", e);
+        }
+    }
+
+    // RFC 4180: fields may be quoted, "" is a quote inside a quoted field and quoted fields may span lines
+    private List<String> readCsvRecord() {
+        String line = readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = readLine();
+                if (line == null) {
+                    throw new IllegalArgumentException(location + " ends inside a quoted field");
+                }
+                value.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read fixture " + location, e);
+        }
+    }
+}
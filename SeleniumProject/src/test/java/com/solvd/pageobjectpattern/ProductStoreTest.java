@@ -1,88 +1,125 @@
 package com.solvd.pageobjectpattern;
 
 import com.solvd.testng.pages.*;
+import com.solvd.testng.utils.AdaptiveWait;
+import com.solvd.testng.utils.CartFixture;
 import com.solvd.testng.utils.DriverPool;
+import com.solvd.testng.utils.FailureArtifacts;
+import com.solvd.testng.utils.LogContext;
+import com.solvd.testng.utils.NetworkTraffic;
 import com.solvd.testng.utils.Person;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.solvd.testng.utils.PooledSession;
+import com.solvd.testng.utils.ReadinessStats;
+import com.solvd.testng.utils.SessionCache;
+import com.solvd.testng.utils.StoreAccounts;
+import com.solvd.testng.utils.WaitLatencies;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.edge.EdgeDriver;
-import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import org.testng.ITest;
+import org.testng.ITestResult;
+import org.testng.Reporter;
 import org.testng.annotations.*;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
-public class ProductStoreTest {
+@Listeners({ProfilingListener.class, DurationScheduler.class, BrowserMatrix.class, SelectiveRerun.class})
+@Slf4j
+public class ProductStoreTest implements ITest {
 
-    private static ThreadLocal<WebDriver> threadLocalDriver = new ThreadLocal<>();
+    private static final Person BUYER = new Person("Jakub", "Poland", "Cracow", "411111111111", "December", "2025");
 
-    @Parameters({"browser"})
+    // The leased browser travels with the test's result rather than its thread, see VirtualThreadExecutorFactory
+    private static final String SESSION = "driverSession";
+
+    private final String browser;
+    private final int matrixSize;
+
+    // One instance per browser of the matrix, see BrowserMatrix
+    @Factory(dataProvider = "browsers", dataProviderClass = BrowserMatrix.class)
+    public ProductStoreTest(String browser, int matrixSize) {
+        this.browser = browser;
+        this.matrixSize = matrixSize;
+    }
+
+    @Override
+    public String getTestName() {
+        return browser;
+    }
+
+    // Every browser of the matrix is warmed up at the same time
+    @Parameters({"browser", "warmup"})
+    @BeforeSuite
+    public void warmUpPool(@Optional("chrome") String browsers, @Optional("0") String warmup) {
+        DriverPool.warmUp(BrowserMatrix.browsersOf(browsers), Integer.parseInt(warmup));
+    }
+
+    // Everything logged for the test on its thread carries the test, browser and session, see LogContext
     @BeforeMethod
-    public void setUp(@Optional("chrome") String browser) {
-        WebDriver driver;
-        switch (browser.toLowerCase()) {
-            case "chrome":
-                WebDriverManager.chromedriver().setup();
-                driver = new ChromeDriver();
-                break;
-            case "firefox":
-                WebDriverManager.firefoxdriver().setup();
-                driver = new FirefoxDriver();
-                break;
-            case "edge":
-                WebDriverManager.edgedriver().setup();
-                driver = new EdgeDriver();
-                break;
-            default:
-                throw new IllegalArgumentException("Browser not supported: " + browser);
-        }
-        driver.manage().window().maximize();
-        driver.manage().deleteAllCookies();
-        driver.manage().timeouts().implicitlyWait(10, TimeUnit.SECONDS);
-        threadLocalDriver.set(driver);
+    public void setUp(ITestResult result) {
+        LogContext.startTest(getClass().getSimpleName() + "." + result.getMethod().getMethodName(), browser);
+        PooledSession session = DriverPool.checkout(browser);
+        LogContext.session(session);
+        result.setAttribute(SESSION, session);
     }
 
 
     @AfterMethod
-    public void tearDown() {
-        WebDriver driver = threadLocalDriver.get();
-        if (driver != null) {
+    public void tearDown(ITestResult result) {
+        PooledSession session = (PooledSession) result.removeAttribute(SESSION);
+        if (session != null) {
+            if (result.getStatus() == ITestResult.FAILURE) {
+                // Only the driver calls happen here, compressing and writing is left to a background thread
+                FailureArtifacts.capture(session.getDriver(), result.getTestClass().getRealClass().getSimpleName()
+                        + "." + result.getName() + "-" + browser.replace(':', '-'));
+            }
+            session.takeNetworkUsage()
+                    .ifPresent(usage -> log.info("Network {}: {}", result.getName(), usage));
             try {
-                driver.quit();
+                DriverPool.release(session);
             } catch (Exception e) {
-                System.err.println("Error while quitting driver: " + e.getMessage());
-            } finally {
-                threadLocalDriver.remove();
+                log.warn("Error while releasing driver: {}", e.getMessage());
             }
         }
+        LogContext.clear();
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void shutDownPool() {
+        DriverPool.printStats();
+        ReadinessStats.printStats();
+        WaitLatencies.printStats();
+        WaitLatencies.save();
+        NetworkTraffic.printStats();
+        FailureArtifacts.flush();
+        DriverPool.shutdown();
     }
 
     public WebDriver getDriver() {
-        return threadLocalDriver.get();
+        PooledSession session = (PooledSession) Reporter.getCurrentTestResult().getAttribute(SESSION);
+        return session == null ? null : session.getDriver();
     }
 
 
     @Test
     public void testLogin() {
         WebDriver driver = getDriver();
-        login(driver, "jakubszczypek", "1234");
-        assertLogin(driver, "jakubszczypek");
+        String username = account("jakubszczypek", "1234");
+        uiLogin(driver, username, "1234");
+        assertLogin(driver, username);
     }
 
     @Test
     public void testAddProductToCart() throws InterruptedException {
         WebDriver driver = getDriver();
         // Log in - the helpful method to log in - the reuse of code
-        login(driver, "jakubszczypek2", "1234");
+        login(driver, account("jakubszczypek2", "1234"), "1234");
+        CartFixture.clear(driver);
 
         // Adds product to the cart - helpful method which reduce amount of code
         List<String> informations = addProductToCartByIndex(driver, 0);
@@ -95,33 +132,31 @@ public class ProductStoreTest {
         ProductPage productPage = new ProductPage(driver);
         productPage.goToCart();
 
+        // assertsInCart waits for the cart rows itself
         CartPage cartPage = new CartPage(driver);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("The cart is not loaded properly!")
-                .until(ExpectedConditions.visibilityOfAllElements(cartPage.getProductNamesInCartElement()));
+        assertsInCart(cartPage, productName, price);
 
-        assertsInCart(driver, productName, price);
-
-        deleteProductsInTheCartAndCheckIt(driver);
+        deleteProductsInTheCartAndCheckIt(cartPage);
     }
 
     @Test
-    public void testAddSingleProductPurchase() throws InterruptedException {
+    public void testAddSingleProductPurchase() {
         WebDriver driver = getDriver();
 
-        login(driver, "jakubszczypek3", "1234");
+        login(driver, account("jakubszczypek3", "1234"), "1234");
 
         AllProductsPage allProductsPage = new AllProductsPage(driver);
-        int size = allProductsPage.getProductList().size();
+        List<CatalogItem> catalog = allProductsPage.getCatalog();
+        int size = catalog.size();
         int index = 3;
         if (index < size) {
-            List<String> informations = addProductToCartByIndex(driver, 3);
+            // The add-to-cart UI flow is covered by testAddProductToCart, here the cart is built through the API
+            CartFixture.clear(driver);
+            CatalogItem product = CartFixture.addProducts(driver, List.of(catalog.get(index))).get(0);
 
-            String price = informations.get(1);
-            ProductPage productPage = new ProductPage(driver);
-            productPage.goToCart();
+            allProductsPage.goToCart();
 
-            PurchaseProduct(driver, price);
+            PurchaseProduct(driver, String.valueOf(product.price()));
         } else {
             throw new IndexOutOfBoundsException("Index is out of bounds: " + index + " for list of size: " + size + "!");
         }
@@ -129,55 +164,46 @@ public class ProductStoreTest {
 
 
     @Test
-    public void testPurchaseProductWithList() throws InterruptedException {
+    public void testPurchaseProductWithList() {
         WebDriver driver = getDriver();
 
-        login(driver, "jakubszczypek4", "1234");
+        login(driver, account("jakubszczypek4", "1234"), "1234");
         AllProductsPage allProductsPage = new AllProductsPage(driver);
 
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        Thread.sleep(2000);
-        wait.withMessage("No products found on the page!")
-                .until(ExpectedConditions.visibilityOfAllElements(allProductsPage.getProductList()));
-
-        List<String> allNamesOfProducts  = allProductsPage.getProductNames();
-        int size = allNamesOfProducts .size();
+        List<CatalogItem> catalog = allProductsPage.getCatalog();
+        Assert.assertFalse(catalog.isEmpty(), "No products found on the page!");
+        int size = catalog.size();
 
-        List<String> selectedProductNames = new ArrayList<>();
-        List<String> pricesOfProducts = new ArrayList<>();
+        List<CatalogItem> selectedProducts = new ArrayList<>();
         List<Integer> indexes = List.of(0, 1, 5);
 
         for (int index : indexes) {
             if (index < size) {
-                List<String> informations = addProductToCartByIndex(driver, index);
-
-                selectedProductNames.add(allNamesOfProducts.get(index));
-                pricesOfProducts.add(informations.get(1));
+                selectedProducts.add(catalog.get(index));
             } else {
-                System.out.println("Index " + index + " is out of bounds for list of size: " + size);
+                log.warn("Index {} is out of bounds for list of size: {}", index, size);
             }
         }
 
-        if (pricesOfProducts.size() < indexes.size()) {
+        if (selectedProducts.size() < indexes.size()) {
             throw new IllegalStateException("Not all products were added to the cart!");
         }
 
-        allProductsPage.goToCart();
-
-        CartPage cartPage = new CartPage(driver);
-        wait.withMessage("The elements Product names in the cart were not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOfAllElements(cartPage.getProductNamesInCartElement()));
+        // All products are added in parallel through the cart API, so the setup does not grow with the list
+        CartFixture.clear(driver);
+        CartFixture.addProducts(driver, selectedProducts);
 
-        wait.withMessage("The elements Product prices in the cart were not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOfAllElements(cartPage.getProductPricesInCartElement()));
+        allProductsPage.goToCart();
 
-        List<String> cartProductNames = cartPage.getProductNamesInCart();
-        List<String> cartProductPrices = cartPage.getProductPricesInCart();
+        // One snapshot of the cart table and total serves every assertion below
+        StoreSnapshot cart = awaitCart(driver, selectedProducts.size());
+        List<String> cartProductNames = cart.cartRows().stream().map(CartRow::name).toList();
+        List<String> cartProductPrices = cart.cartRows().stream().map(row -> String.valueOf(row.price())).toList();
 
         // Sort lists using stream
-        selectedProductNames = selectedProductNames.stream().sorted().toList();
+        List<String> selectedProductNames = selectedProducts.stream().map(CatalogItem::title).sorted().toList();
+        List<String> pricesOfProducts = selectedProducts.stream().map(item -> String.valueOf(item.price())).sorted().toList();
         cartProductNames = cartProductNames.stream().sorted().toList();
-        pricesOfProducts = pricesOfProducts.stream().sorted().toList();
         cartProductPrices = cartProductPrices.stream().sorted().toList();
 
         Assert.assertEquals(cartProductNames, selectedProductNames,
@@ -185,7 +211,7 @@ public class ProductStoreTest {
         Assert.assertEquals(cartProductPrices, pricesOfProducts,
                 "Product prices in the cart do not match the selected products!");
 
-        String totalPrice = cartPage.getTotalPrice();
+        String totalPrice = cart.totalPrice();
         int actualTotalPrice = Integer.parseInt(totalPrice);
 
         int expectedTotalPrice = cartProductPrices.stream()
@@ -197,114 +223,126 @@ public class ProductStoreTest {
         PurchaseProduct(driver, totalPrice);
     }
 
+    @Test(dataProvider = "checkouts", dataProviderClass = CheckoutData.class)
+    public void testCheckoutFromFixture(CheckoutData.CheckoutCase checkout) {
+        WebDriver driver = getDriver();
 
-    public void PurchaseProduct(WebDriver driver, String totalPrice) {
-        CheckoutPage checkoutPage = new CheckoutPage(driver);
+        login(driver, account(checkout.username(), checkout.password()), checkout.password());
+        AllProductsPage allProductsPage = new AllProductsPage(driver);
 
-        CartPage cartPage = new CartPage(driver);
-        cartPage.placeOrder();
+        List<CatalogItem> catalog = allProductsPage.getCatalog();
+        List<CatalogItem> selectedProducts = new ArrayList<>();
+        for (int index : checkout.products()) {
+            if (index >= catalog.size()) {
+                throw new IndexOutOfBoundsException("Index is out of bounds: " + index + " for list of size: " + catalog.size() + "!");
+            }
+            selectedProducts.add(catalog.get(index));
+        }
 
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("The element Name field was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(checkoutPage.getNameField()));
+        CartFixture.clear(driver);
+        CartFixture.addProducts(driver, selectedProducts);
+        allProductsPage.goToCart();
 
-        wait.withMessage("The element Country field was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(checkoutPage.getCountryField()));
+        StoreSnapshot cart = awaitCart(driver, selectedProducts.size());
+        List<String> cartProductNames = cart.cartRows().stream().map(CartRow::name).sorted().toList();
+        Assert.assertEquals(cartProductNames, selectedProducts.stream().map(CatalogItem::title).sorted().toList(),
+                "Product names in the cart do not match the selected products!");
 
-        wait.withMessage("The element City field was not found in 10 seconds!").until(ExpectedConditions.visibilityOf(checkoutPage.getCityField()));
+        int expectedTotalPrice = selectedProducts.stream().mapToInt(CatalogItem::price).sum();
+        String totalPrice = cart.totalPrice();
+        Assert.assertEquals(Integer.parseInt(totalPrice), expectedTotalPrice, "Total price mismatch!");
 
-        wait.withMessage("The element Card field was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(checkoutPage.getCardField()));
+        PurchaseProduct(driver, totalPrice, checkout.person());
+    }
 
-        wait.withMessage("The element Month field was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(checkoutPage.getMonthField()));
 
-        wait.withMessage("The element Year field was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(checkoutPage.getYearField()));
+    public void PurchaseProduct(WebDriver driver, String totalPrice) {
+        PurchaseProduct(driver, totalPrice, BUYER);
+    }
 
-        // Filling the purchase details
-        Person person = new Person("Jakub", "Poland", "Cracow", "411111111111", "December", "2025");
+    public void PurchaseProduct(WebDriver driver, String totalPrice, Person person) {
+        CheckoutPage checkoutPage = new CheckoutPage(driver);
 
-//        checkoutPage.fillCheckoutDetails(person.getName(),
-//                person.getCountry(),
-//                person.getCity(),
-//                person.getCreditCard(),
-//                person.getMonth(),
-//                person.getYear());
+        CartPage cartPage = new CartPage(driver);
+        cartPage.placeOrder();
 
+        // Filling the purchase details - fillCheckoutDetails waits once for the whole order form
         checkoutPage.fillCheckoutDetails(person);
 
-        wait.withMessage("The element Purchase button was not found in 10 seconds!")
+        AdaptiveWait.on(driver, "CheckoutPage.purchaseButton")
+                .withMessage("The element Purchase button was not found!")
                 .until(ExpectedConditions.elementToBeClickable(checkoutPage.getPurchaseButton()));
 
         checkoutPage.completePurchase();
-        wait.withMessage("The element Purchase details was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(checkoutPage.getPurchaseDetailsElement()));
+        StoreSnapshot confirmation = StoreSnapshot.capture(driver)
+                .awaitUntil("CheckoutPage.purchaseDetails", "The element Purchase details was not found!",
+                        snapshot -> snapshot.isVisible(StoreSnapshot.PURCHASE));
 
         // Check if the details of purchase are okay
-        assertPurchaseDetails(driver, totalPrice, person.getCreditCard(), person.getName());
+        assertPurchaseDetails(confirmation.purchaseDetails(), totalPrice, person.creditCard(), person.name());
 
         // Confirm the purchase
         checkoutPage.confirmPurchase();
     }
 
-    public void assertPurchaseDetails(WebDriver driver, String totalPrice, String creditCard, String name) {
-        CheckoutPage checkoutPage = new CheckoutPage(driver);
-
+    public void assertPurchaseDetails(String purchaseDetails, String totalPrice, String creditCard, String name) {
         // Validate the purchase summary details
-        String purchaseDetails = checkoutPage.getPurchaseDetails();
         Assert.assertTrue(purchaseDetails.contains("Id:"), "Purchase details missing ID!");
         Assert.assertTrue(purchaseDetails.contains("Amount: " + totalPrice), "Purchase amount mismatch!");
         Assert.assertTrue(purchaseDetails.contains("Card Number: " + creditCard), "Credit card mismatch!");
         Assert.assertTrue(purchaseDetails.contains("Name: " + name), "Name mismatch in purchase details!");
 
-        System.out.println("Test passed: Purchase details are correct!");
+        log.info("Test passed: Purchase details are correct!");
+    }
+
+    // The account of this browser of the matrix, signed up on the store if needed
+    private String account(String username, String password) {
+        String account = BrowserMatrix.accountFor(username, browser, matrixSize);
+        StoreAccounts.ensure(account, password);
+        return account;
     }
 
+    // Reuses the account's cached session when possible, see SessionCache
     public static void login(WebDriver driver, String username, String password) {
+        SessionCache.login(driver, username, password);
+    }
+
+    public static void uiLogin(WebDriver driver, String username, String password) {
         LoginPage loginPage = new LoginPage(driver);
         loginPage.open();
         loginPage.openLoginModal();
-
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("The element Username field was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(loginPage.getUsernameField()));
-
         loginPage.login(username, password);
     }
 
     public static void assertLogin(WebDriver driver, String username) {
-        LoginPage loginPage = new LoginPage(driver);
-
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("The element Welcome text was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(loginPage.getWelcomeTextElement()));
+        StoreSnapshot page = StoreSnapshot.capture(driver)
+                .awaitUntil("LoginPage.welcomeText", "The element Welcome text was not found!",
+                        snapshot -> snapshot.isVisible(StoreSnapshot.WELCOME));
 
-        Assert.assertEquals(loginPage.getWelcomeText(), "Welcome " + username,
+        Assert.assertEquals(page.welcomeText(), "Welcome " + username,
                 "Login failed or welcome message is incorrect!");
     }
 
     public static List<String> addProductToCartByIndex(WebDriver driver, int index) throws InterruptedException {
         AllProductsPage allProductsPage = new AllProductsPage(driver);
+        // There is no implicit wait any more, so the cards have to be loaded before indexing into them
+        allProductsPage.waitForCatalog();
 
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        wait.withMessage("The element Product name was not found in 10 seconds!")
+        AdaptiveWait.on(driver, "AllProductsPage.productName")
+                .withMessage("The element Product name was not found!")
                 .until(ExpectedConditions.visibilityOf(allProductsPage.getProductList().get(index)));
 
         ProductPage productPage = new ProductPage(driver);
         String productName = allProductsPage.getProductList().get(index).getText();
         allProductsPage.selectProductByIndex(index);
 
-        wait.withMessage("The element Product price was not found in 10 seconds!")
+        AdaptiveWait.on(driver, "ProductPage.price")
+                .withMessage("The element Product price was not found!")
                 .until(ExpectedConditions.visibilityOf(productPage.getProductPriceElement()));
 
         String price = productPage.getProductPrice();
-        productPage.addToCart();
-
-        wait.withMessage("The alert was not found in 10 seconds!").until(ExpectedConditions.alertIsPresent());
-
-        driver.switchTo().alert().accept();
+        // Waits in the page for the "Product added" alert, which is accepted there
+        productPage.addToCart().await();
 
         allProductsPage.goToHome();
 
@@ -315,24 +353,29 @@ public class ProductStoreTest {
         return informations;
     }
 
-    public static void assertsInCart(WebDriver driver, String productName, String price) {
-        CartPage cartPage = new CartPage(driver);
-
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        wait.withMessage("The element Product name in the cart was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(cartPage.getProductNameInTheCartElement()));
-
-        wait.withMessage("The element Product price in the cart was not found in 10 seconds!")
-                .until(ExpectedConditions.visibilityOf(cartPage.getProductPriceInTheCartElement()));
-
-        Assert.assertEquals(cartPage.getProductNamesInCart().get(0), productName,
+    public static void assertsInCart(CartPage cartPage, String productName, String price) {
+        CartRow firstRow = awaitCart(cartPage.getDriver(), 1).cartRows().get(0);
+        Assert.assertEquals(firstRow.name(), productName,
                 "Product name in the cart does not match the selected product!");
-        Assert.assertTrue(price.contains(cartPage.getProductPricesInCart().get(0)),
+        Assert.assertTrue(price.contains(String.valueOf(firstRow.price())),
                 "Product price in the cart does not match the selected product!");
     }
 
-    public static void deleteProductsInTheCartAndCheckIt(WebDriver driver) {
-        CartPage cartPage = new CartPage(driver);
+    // The cart fills row by row and updates the total after each one; each poll re-reads only the regions that
+    // changed. The total is checked against the rows, so a snapshot taken between a row and its total is not used
+    public static StoreSnapshot awaitCart(WebDriver driver, int rows) {
+        return StoreSnapshot.capture(driver)
+                .awaitUntil("CartPage.rows", "Expected " + rows + " products and their total in the cart!",
+                        snapshot -> snapshot.cartRows().size() == rows && totalMatchesRows(snapshot));
+    }
+
+    private static boolean totalMatchesRows(StoreSnapshot snapshot) {
+        String total = snapshot.totalPrice();
+        return total != null && !total.isEmpty()
+                && total.equals(String.valueOf(snapshot.cartRows().stream().mapToInt(CartRow::price).sum()));
+    }
+
+    public static void deleteProductsInTheCartAndCheckIt(CartPage cartPage) {
         cartPage.deleteAllItems();
         Assert.assertTrue(cartPage.getDeleteButtons().isEmpty(),
                 "Cart is not empty after removing all items");
@@ -0,0 +1,60 @@
+package com.solvd.pageobjectpattern;
+
+import com.solvd.testng.profiling.Profiler;
+import com.solvd.testng.profiling.RunReport;
+import com.solvd.testng.profiling.Span;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.nio.file.Path;
+
+/*
+ * Opens one span tree per test, from its @BeforeMethod to its @AfterMethod, with setUp, the test body and
+ * tearDown as steps. The report is written to target/timing-report (or -Dprofile.dir) when the suite ends.
+ */
+public class ProfilingListener implements IInvokedMethodListener, ISuiteListener {
+
+    private static final ThreadLocal<Span> step = new ThreadLocal<>();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ITestNGMethod testMethod = method.getTestMethod();
+        if (testMethod.isBeforeMethodConfiguration() && !Profiler.isRecording()) {
+            Profiler.startTest(testMethod.getRealClass().getSimpleName());
+        } else if (method.isTestMethod()) {
+            if (!Profiler.isRecording()) {
+                Profiler.startTest(nameOf(testMethod));
+            } else {
+                Profiler.nameTest(nameOf(testMethod));
+            }
+        }
+        step.set(Profiler.start(Profiler.STEP, testMethod.getMethodName()));
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Span span = step.get();
+        if (span != null) {
+            step.remove();
+            span.close();
+        }
+        if (method.getTestMethod().isAfterMethodConfiguration()) {
+            RunReport.add(Profiler.finishTest(), BrowserMatrix.browserOf(method.getTestMethod()));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        RunReport.write(Path.of(System.getProperty("profile.dir", "target/timing-report")));
+    }
+
+    private static String nameOf(ITestNGMethod method) {
+        String browser = BrowserMatrix.browserOf(method);
+        String name = method.getRealClass().getSimpleName() + "." + method.getMethodName();
+        return browser == null ? name : name + "[" + browser + "]";
+    }
+}
@@ -0,0 +1,123 @@
+package com.solvd.pageobjectpattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/*
+ * The outcome of every test method's last run, kept in -Dresults.cache (target/test-results.properties by
+ * default) together with the fingerprint of the code it ran (see TestFingerprints) and counters of all its
+ * runs: how many there were, how many failed for good and how many only passed after a retry. Like
+ * TestDurations, shards merge their results into the file under a lock.
+ */
+@Slf4j
+class ResultCache {
+
+    // From best to worst
+    enum Status {
+        PASSED, SKIPPED, FAILED
+    }
+
+    record Entry(String fingerprint, Status status, long runs, long failures, long flaky) {
+
+        Entry next(Entry latest) {
+            return new Entry(latest.fingerprint, latest.status, runs + latest.runs, failures + latest.failures,
+                    flaky + latest.flaky);
+        }
+
+        double flakiness() {
+            return runs == 0 ? 0 : (double) flaky / runs;
+        }
+
+        private String format() {
+            return String.join(";", fingerprint, status.name(), String.valueOf(runs), String.valueOf(failures),
+                    String.valueOf(flaky));
+        }
+
+        private static Entry parse(String value) {
+            String[] parts = value.trim().split(";");
+            return new Entry(parts[0], Status.valueOf(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]),
+                    Long.parseLong(parts[4]));
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Entry> entries;
+
+    private ResultCache(Path file, Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    static ResultCache load() {
+        Path file = Path.of(System.getProperty("results.cache", "target/test-results.properties"));
+        Map<String, Entry> entries = new HashMap<>();
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                entries.putAll(read(in));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable test results {}: {}", file, e.getMessage());
+            }
+        }
+        return new ResultCache(file, entries);
+    }
+
+    Entry get(String test) {
+        return entries.get(test);
+    }
+
+    // Returns the merged entries, i.e. including what other shards have written since load()
+    Map<String, Entry> save(Map<String, Entry> observed) {
+        if (observed.isEmpty()) {
+            return Map.copyOf(entries);
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Entry> merged = channel.size() == 0 ? new HashMap<>() : read(Channels.newInputStream(channel));
+                observed.forEach((test, latest) -> merged.merge(test, latest, Entry::next));
+
+                Properties properties = new Properties();
+                merged.forEach((test, entry) -> properties.setProperty(test, entry.format()));
+                channel.truncate(0);
+                channel.position(0);
+                OutputStream out = Channels.newOutputStream(channel);
+                properties.store(out, "fingerprint;last status;runs;failures;passed after a retry");
+                out.flush();
+                return merged;
+            }
+        } catch (IOException e) {
+            log.warn("Could not save test results to {}: {}", file, e.getMessage());
+            Map<String, Entry> merged = new HashMap<>(entries);
+            observed.forEach((test, latest) -> merged.merge(test, latest, Entry::next));
+            return merged;
+        }
+    }
+
+    private static Map<String, Entry> read(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        Map<String, Entry> entries = new HashMap<>();
+        for (String test : properties.stringPropertyNames()) {
+            try {
+                entries.put(test, Entry.parse(properties.getProperty(test)));
+            } catch (RuntimeException e) {
+                // Skip the entry, the test counts as changed and runs again
+            }
+        }
+        return entries;
+    }
+}
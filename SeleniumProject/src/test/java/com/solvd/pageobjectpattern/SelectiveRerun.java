@@ -0,0 +1,176 @@
+package com.solvd.pageobjectpattern;
+
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.IRetryAnalyzer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/*
+ * Runs only what needs running, using the results of earlier runs (see ResultCache):
+ *   -Drerun=all      every test, the default
+ *   -Drerun=changed  skips tests that passed last time and whose code is unchanged (see TestFingerprints)
+ *   -Drerun=failed   only the tests that failed or were skipped last time
+ * Data-driven tests always run, their rows live outside the code. With -Drerun=changed or failed, or when
+ * -Dretry.perTest is given, a failed test is retried at once on its own worker while the other workers carry
+ * on, up to -Dretry.perTest times (1) and -Dretry.budget retries (5) in the whole run, so a broken build does
+ * not retry everything. Tests that only passed on a retry count as flaky; their share of runs is reported at
+ * the end. A plain run retries nothing.
+ */
+@Slf4j
+public class SelectiveRerun implements IMethodInterceptor, ITestListener, ISuiteListener {
+
+    private static final int PER_TEST = Integer.getInteger("retry.perTest", 1);
+    private static final Object DEFAULT_RETRY_ANALYZER = defaultRetryAnalyzer();
+    private static final AtomicInteger budget = new AtomicInteger(Integer.getInteger("retry.budget", 5));
+
+    private final String mode = System.getProperty("rerun", "all").trim().toLowerCase();
+    private final boolean retrying = System.getProperty("retry.perTest") != null || !mode.equals("all");
+    private final ResultCache cache = ResultCache.load();
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final Map<String, ResultCache.Entry> observed = new ConcurrentHashMap<>();
+    private final Set<String> retried = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!List.of("all", "changed", "failed").contains(mode)) {
+            throw new IllegalArgumentException("-Drerun must be all, changed or failed, got " + mode);
+        }
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            String name = nameOf(method);
+            String fingerprint = fingerprints.computeIfAbsent(name, ignored -> fingerprintOf(method));
+            if (retrying && !hasOwnRetryAnalyzer(method)) {
+                method.setRetryAnalyzerClass(BudgetRetry.class);
+            }
+            if (mode.equals("all") || method.isDataDriven() || shouldRun(cache.get(name), fingerprint)) {
+                selected.add(instance);
+            }
+        }
+        if (!mode.equals("all")) {
+            log.info("Rerun {}: {} of {} tests", mode, selected.size(), methods.size());
+        }
+        return selected;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        boolean flaky = retried.remove(attemptOf(result));
+        record(result, ResultCache.Status.PASSED, flaky);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        retried.remove(attemptOf(result));
+        record(result, ResultCache.Status.FAILED, false);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        if (result.wasRetried()) {
+            // An attempt that is about to be repeated, only the last attempt's outcome counts
+            retried.add(attemptOf(result));
+            return;
+        }
+        retried.remove(attemptOf(result));
+        record(result, ResultCache.Status.SKIPPED, false);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, ResultCache.Entry> merged = cache.save(observed);
+        List<Map.Entry<String, ResultCache.Entry>> flaky = merged.entrySet().stream()
+                .filter(entry -> entry.getValue().flaky() > 0)
+                .sorted(Comparator.comparingDouble((Map.Entry<String, ResultCache.Entry> entry) -> entry.getValue().flakiness())
+                        .reversed())
+                .toList();
+        if (!flaky.isEmpty()) {
+            log.info("Flaky tests (passed only after a retry):");
+            flaky.forEach(entry -> log.info("  {}", String.format("%-70s %5.1f%% of %d runs", entry.getKey(),
+                    entry.getValue().flakiness() * 100, entry.getValue().runs())));
+        }
+    }
+
+    private boolean shouldRun(ResultCache.Entry last, String fingerprint) {
+        if (mode.equals("failed")) {
+            return last != null && last.status() != ResultCache.Status.PASSED;
+        }
+        return last == null || last.status() != ResultCache.Status.PASSED || !last.fingerprint().equals(fingerprint);
+    }
+
+    private void record(ITestResult result, ResultCache.Status status, boolean flaky) {
+        String name = nameOf(result.getMethod());
+        String fingerprint = fingerprints.computeIfAbsent(name, ignored -> fingerprintOf(result.getMethod()));
+        ResultCache.Entry latest = new ResultCache.Entry(fingerprint, status, 1,
+                status == ResultCache.Status.FAILED ? 1 : 0, flaky ? 1 : 0);
+        // Rows of a data-driven test add up, the worst outcome among them is the test's
+        observed.merge(name, latest, (previous, current) -> new ResultCache.Entry(fingerprint,
+                previous.status().compareTo(current.status()) >= 0 ? previous.status() : current.status(),
+                previous.runs() + current.runs(), previous.failures() + current.failures(),
+                previous.flaky() + current.flaky()));
+    }
+
+    // Tests that name a retryAnalyzer in @Test keep it. The default is read from the annotation, whose value
+    // is a class internal to TestNG
+    private static boolean hasOwnRetryAnalyzer(ITestNGMethod method) {
+        return method.getRetryAnalyzerClass() != null && method.getRetryAnalyzerClass() != DEFAULT_RETRY_ANALYZER;
+    }
+
+    private static Object defaultRetryAnalyzer() {
+        try {
+            return Test.class.getMethod("retryAnalyzer").getDefaultValue();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fingerprintOf(ITestNGMethod method) {
+        List<String> configuration = Stream.of(method.getTestClass().getBeforeTestMethods(),
+                        method.getTestClass().getAfterTestMethods())
+                .flatMap(Arrays::stream)
+                .map(ITestNGMethod::getMethodName)
+                .toList();
+        return TestFingerprints.of(method.getRealClass(), method.getMethodName(), configuration);
+    }
+
+    private static String attemptOf(ITestResult result) {
+        return nameOf(result.getMethod()) + Arrays.deepToString(result.getParameters());
+    }
+
+    // Per browser for matrix runs, so a test failing in one browser is rerun in that one
+    private static String nameOf(ITestNGMethod method) {
+        return BrowserMatrix.nameOf(method);
+    }
+
+    public static class BudgetRetry implements IRetryAnalyzer {
+
+        private int attempts;
+
+        @Override
+        public boolean retry(ITestResult result) {
+            if (attempts >= PER_TEST || budget.getAndUpdate(left -> Math.max(0, left - 1)) == 0) {
+                return false;
+            }
+            attempts++;
+            log.info("Retrying {} ({} retries left)", nameOf(result.getMethod()), budget.get());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.solvd.pageobjectpattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/*
+ * Historical duration of every test method in milliseconds, kept in -Dtest.durations
+ * (target/test-durations.properties by default) as a moving average of the last runs. Shards running in
+ * parallel JVMs merge their results into the file under a lock instead of overwriting each other.
+ */
+@Slf4j
+class TestDurations {
+
+    private static final double WEIGHT_OF_LATEST = 0.5;
+
+    private final Path file;
+    private final Map<String, Long> millis;
+
+    private TestDurations(Path file, Map<String, Long> millis) {
+        this.file = file;
+        this.millis = millis;
+    }
+
+    static TestDurations load() {
+        return load(Path.of(System.getProperty("test.durations", "target/test-durations.properties")));
+    }
+
+    static TestDurations load(Path file) {
+        Map<String, Long> millis = new HashMap<>();
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                millis.putAll(read(in));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable test durations {}: {}", file, e.getMessage());
+            }
+        }
+        return new TestDurations(file, millis);
+    }
+
+    Long get(String test) {
+        return millis.get(test);
+    }
+
+    Map<String, Long> asMap() {
+        return Map.copyOf(millis);
+    }
+
+    void save(Map<String, Long> observed) {
+        if (observed.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                // Re-read under the lock so durations written by other shards in the meantime are kept
+                Map<String, Long> merged = channel.size() == 0 ? new HashMap<>() : read(Channels.newInputStream(channel));
+                observed.forEach((test, latest) -> merged.merge(test, latest,
+                        (previous, current) -> Math.round(previous * (1 - WEIGHT_OF_LATEST) + current * WEIGHT_OF_LATEST)));
+
+                Properties properties = new Properties();
+                merged.forEach((test, duration) -> properties.setProperty(test, String.valueOf(duration)));
+                channel.truncate(0);
+                channel.position(0);
+                OutputStream out = Channels.newOutputStream(channel);
+                properties.store(out, "Test durations in milliseconds");
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Could not save test durations to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> read(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        Map<String, Long> millis = new HashMap<>();
+        for (String test : properties.stringPropertyNames()) {
+            try {
+                millis.put(test, Long.parseLong(properties.getProperty(test).trim()));
+            } catch (NumberFormatException e) {
+                // Skip the entry, the test is scheduled as unknown until it runs again
+            }
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,427 @@
+package com.solvd.pageobjectpattern;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * A hash of everything a test method runs that lives in this project, read from the compiled classes: the
+ * bytecode of the method, of the test class's own methods it calls (its lambdas included) and of the
+ * configuration methods around it, together with the constants their instructions and annotations use (string
+ * literals, numbers, member names), plus the whole class files of the project classes these refer to,
+ * followed transitively. Editing CartPage changes the fingerprints of the tests that reach CartPage and
+ * no others; library classes are not part of it.
+ */
+class TestFingerprints {
+
+    private static final String PROJECT_PACKAGE = "com/solvd/";
+
+    private static final Map<String, ClassFile> classes = new ConcurrentHashMap<>();
+
+    private TestFingerprints() {
+    }
+
+    static String of(Class<?> testClass, String testMethod, List<String> configurationMethods) {
+        return fingerprint(testClass, testMethod, configurationMethods, TestFingerprints::classFile);
+    }
+
+    // With the class files from the given lookup instead of the classpath, e.g. edited ones
+    static String of(Class<?> testClass, String testMethod, List<String> configurationMethods,
+                     Function<String, byte[]> classBytes) {
+        Map<String, Optional<ClassFile>> parsed = new HashMap<>();
+        return fingerprint(testClass, testMethod, configurationMethods, name -> parsed
+                .computeIfAbsent(name, ignored -> Optional.ofNullable(classBytes.apply(name)).map(TestFingerprints::parse))
+                .orElse(null));
+    }
+
+    private static String fingerprint(Class<?> testClass, String testMethod, List<String> configurationMethods,
+                                      Function<String, ClassFile> classFile) {
+        ClassFile test = classFile.apply(internalName(testClass));
+        Map<String, byte[]> parts = new TreeMap<>();
+        Set<String> reachedClasses = new LinkedHashSet<>();
+
+        Deque<Method> pending = new ArrayDeque<>();
+        test.methodsNamed(testMethod).forEach(pending::add);
+        configurationMethods.forEach(name -> test.methodsNamed(name).forEach(pending::add));
+        test.methodsNamed("<clinit>").forEach(pending::add);
+        Set<String> seenMethods = new LinkedHashSet<>();
+        while (!pending.isEmpty()) {
+            Method method = pending.pop();
+            if (!seenMethods.add(method.name() + method.descriptor())) {
+                continue;
+            }
+            parts.put("method " + method.name() + method.descriptor(), method.content());
+            for (String owner : method.referencedClasses()) {
+                if (!owner.equals(test.name())) {
+                    reachedClasses.add(owner);
+                }
+            }
+            method.calledOwnMethods().forEach(name -> test.methodsNamed(name).forEach(pending::add));
+            if (method.hasLambdas()) {
+                test.methodsStartingWith("lambda$" + method.name() + "$").forEach(pending::add);
+            }
+        }
+
+        Deque<String> classQueue = new ArrayDeque<>(reachedClasses);
+        Set<String> seenClasses = new LinkedHashSet<>();
+        while (!classQueue.isEmpty()) {
+            String name = classQueue.pop();
+            if (!name.startsWith(PROJECT_PACKAGE) || !seenClasses.add(name)) {
+                continue;
+            }
+            ClassFile reached = classFile.apply(name);
+            if (reached != null) {
+                parts.put("class " + name, reached.bytes());
+                classQueue.addAll(reached.referencedClasses());
+            }
+        }
+        return sha256(parts);
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static ClassFile classFile(String internalName) {
+        return classes.computeIfAbsent(internalName, name -> {
+            byte[] bytes = classBytes(name);
+            return bytes == null ? null : parse(bytes);
+        });
+    }
+
+    // The class file on the classpath, null for classes that have none
+    static byte[] classBytes(String internalName) {
+        try (InputStream in = TestFingerprints.class.getClassLoader().getResourceAsStream(internalName + ".class")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the class file of " + internalName, e);
+        }
+    }
+
+    private static ClassFile parse(byte[] bytes) {
+        try {
+            return ClassFile.parse(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed class file", e);
+        }
+    }
+
+    private static String sha256(Map<String, byte[]> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            parts.forEach((name, content) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update(content);
+            });
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Method(String name, String descriptor, byte[] content, Set<String> referencedClasses,
+                          Set<String> calledOwnMethods, boolean hasLambdas) {
+    }
+
+    /*
+     * The instructions only hold indexes into the class's constant pool, which shift with any edit elsewhere in
+     * the class and say nothing about the values, so what a method hashes is the values the indexes resolve to
+     */
+    private record ConstantPool(int[] tags, int[] first, int[] second, String[] values, List<int[]> bootstrapMethods) {
+
+        String resolve(int index) {
+            return switch (tags[index]) {
+                case 1, 3, 4, 5, 6 -> values[index];
+                case 7 -> "class " + values[first[index]];
+                case 8 -> "string " + values[first[index]];
+                case 9, 10, 11 -> resolve(first[index]) + "." + resolve(second[index]);
+                case 12 -> values[first[index]] + values[second[index]];
+                case 15 -> "handle " + resolve(first[index]);
+                case 16 -> "type " + values[first[index]];
+                // String concatenation keeps its literal parts in the bootstrap arguments
+                case 17, 18 -> {
+                    StringBuilder resolved = new StringBuilder("dynamic " + resolve(second[index]));
+                    for (int argument : bootstrapMethods.get(first[index])) {
+                        resolved.append(' ').append(resolve(argument));
+                    }
+                    yield resolved.toString();
+                }
+                default -> "";
+            };
+        }
+    }
+
+    // Just enough of the class file format (JVMS chapter 4) to list methods and what their code refers to
+    private record ClassFile(String name, byte[] bytes, List<Method> methods, Set<String> referencedClasses) {
+
+        private static final int CLASS = 7;
+        private static final int FIELD_REF = 9;
+        private static final int METHOD_REF = 10;
+        private static final int INTERFACE_METHOD_REF = 11;
+        private static final int INVOKE_DYNAMIC = 18;
+
+        // Read before the BootstrapMethods attribute at the end of the class file, hashed after it
+        private record RawMethod(String name, String descriptor, byte[] code, List<byte[]> annotations,
+                                 List<byte[]> parameterAnnotations) {
+        }
+
+        List<Method> methodsNamed(String methodName) {
+            return methods.stream().filter(method -> method.name().equals(methodName)).toList();
+        }
+
+        List<Method> methodsStartingWith(String prefix) {
+            return methods.stream().filter(method -> method.name().startsWith(prefix)).toList();
+        }
+
+        static ClassFile parse(byte[] bytes) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            in.skipBytes(8);
+            int count = in.readUnsignedShort();
+            int[] tags = new int[count];
+            int[] first = new int[count];
+            int[] second = new int[count];
+            String[] utf8 = new String[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                tags[i] = tag;
+                switch (tag) {
+                    case 1 -> utf8[i] = in.readUTF();
+                    case 3 -> utf8[i] = "int " + in.readInt();
+                    case 4 -> utf8[i] = "float " + in.readInt();
+                    case 5, 6 -> {
+                        utf8[i] = (tag == 5 ? "long " : "double ") + in.readLong();
+                        i++;
+                    }
+                    case 7, 8, 16, 19, 20 -> first[i] = in.readUnsignedShort();
+                    case 9, 10, 11, 12, 17, 18 -> {
+                        first[i] = in.readUnsignedShort();
+                        second[i] = in.readUnsignedShort();
+                    }
+                    case 15 -> {
+                        in.skipBytes(1);
+                        first[i] = in.readUnsignedShort();
+                    }
+                    default -> throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+            in.skipBytes(2);
+            String name = utf8[first[in.readUnsignedShort()]];
+            in.skipBytes(2);
+            in.skipBytes(2 * in.readUnsignedShort());
+            int fields = in.readUnsignedShort();
+            for (int i = 0; i < fields; i++) {
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+
+            Set<String> classRefs = new LinkedHashSet<>();
+            for (int i = 1; i < count; i++) {
+                if (tags[i] == CLASS) {
+                    classRefs.add(elementClass(utf8[first[i]]));
+                }
+            }
+
+            List<RawMethod> rawMethods = new ArrayList<>();
+            int methodCount = in.readUnsignedShort();
+            for (int m = 0; m < methodCount; m++) {
+                in.skipBytes(2);
+                String methodName = utf8[in.readUnsignedShort()];
+                String descriptor = utf8[in.readUnsignedShort()];
+                byte[] code = new byte[0];
+                List<byte[]> annotations = new ArrayList<>();
+                List<byte[]> parameterAnnotations = new ArrayList<>();
+                int attributes = in.readUnsignedShort();
+                for (int a = 0; a < attributes; a++) {
+                    String attribute = utf8[in.readUnsignedShort()];
+                    byte[] data = in.readNBytes(in.readInt());
+                    if (attribute.equals("Code")) {
+                        // max_stack and max_locals come before the code's length
+                        code = Arrays.copyOfRange(data, 8, 8 + readInt(data, 4));
+                    } else if (attribute.endsWith("ParameterAnnotations")) {
+                        parameterAnnotations.add(data);
+                    } else if (attribute.equals("RuntimeVisibleAnnotations") || attribute.equals("RuntimeInvisibleAnnotations")) {
+                        // e.g. @Test(dataProvider = ...)
+                        annotations.add(data);
+                    }
+                }
+                rawMethods.add(new RawMethod(methodName, descriptor, code, annotations, parameterAnnotations));
+            }
+
+            List<int[]> bootstrapMethods = new ArrayList<>();
+            int classAttributes = in.readUnsignedShort();
+            for (int a = 0; a < classAttributes; a++) {
+                String attribute = utf8[in.readUnsignedShort()];
+                byte[] data = in.readNBytes(in.readInt());
+                if (attribute.equals("BootstrapMethods")) {
+                    DataInputStream bootstrap = new DataInputStream(new ByteArrayInputStream(data));
+                    int bootstrapCount = bootstrap.readUnsignedShort();
+                    for (int b = 0; b < bootstrapCount; b++) {
+                        int method = bootstrap.readUnsignedShort();
+                        int arguments = bootstrap.readUnsignedShort();
+                        int[] references = new int[arguments + 1];
+                        references[0] = method;
+                        for (int i = 1; i <= arguments; i++) {
+                            references[i] = bootstrap.readUnsignedShort();
+                        }
+                        bootstrapMethods.add(references);
+                    }
+                }
+            }
+            ConstantPool pool = new ConstantPool(tags, first, second, utf8, bootstrapMethods);
+
+            List<Method> methods = new ArrayList<>();
+            for (RawMethod raw : rawMethods) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                Set<String> referenced = new LinkedHashSet<>();
+                Set<String> ownCalls = new LinkedHashSet<>();
+                boolean lambdas = false;
+                content.writeBytes(raw.code());
+                for (int index : constantReferences(raw.code())) {
+                    content.writeBytes(("\n" + pool.resolve(index)).getBytes(StandardCharsets.UTF_8));
+                    if (tags[index] == INVOKE_DYNAMIC) {
+                        lambdas = true;
+                    } else if (tags[index] == CLASS) {
+                        referenced.add(elementClass(utf8[first[index]]));
+                    } else if (tags[index] >= FIELD_REF && tags[index] <= INTERFACE_METHOD_REF) {
+                        String owner = elementClass(utf8[first[first[index]]]);
+                        referenced.add(owner);
+                        if (owner.equals(name) && (tags[index] == METHOD_REF || tags[index] == INTERFACE_METHOD_REF)) {
+                            ownCalls.add(utf8[first[second[index]]]);
+                        }
+                    }
+                }
+                StringBuilder annotations = new StringBuilder();
+                for (byte[] data : raw.annotations()) {
+                    DataInputStream attribute = new DataInputStream(new ByteArrayInputStream(data));
+                    resolveAnnotations(attribute, pool, annotations);
+                }
+                for (byte[] data : raw.parameterAnnotations()) {
+                    DataInputStream attribute = new DataInputStream(new ByteArrayInputStream(data));
+                    int parameters = attribute.readUnsignedByte();
+                    for (int i = 0; i < parameters; i++) {
+                        annotations.append("\nparameter ").append(i);
+                        resolveAnnotations(attribute, pool, annotations);
+                    }
+                }
+                content.writeBytes(annotations.toString().getBytes(StandardCharsets.UTF_8));
+                methods.add(new Method(raw.name(), raw.descriptor(), content.toByteArray(), referenced, ownCalls, lambdas));
+            }
+            return new ClassFile(name, bytes, methods, classRefs);
+        }
+
+        private static void resolveAnnotations(DataInputStream in, ConstantPool pool, StringBuilder out) throws IOException {
+            int annotations = in.readUnsignedShort();
+            for (int i = 0; i < annotations; i++) {
+                resolveAnnotation(in, pool, out);
+            }
+        }
+
+        private static void resolveAnnotation(DataInputStream in, ConstantPool pool, StringBuilder out) throws IOException {
+            out.append("\n@").append(pool.resolve(in.readUnsignedShort()));
+            int pairs = in.readUnsignedShort();
+            for (int i = 0; i < pairs; i++) {
+                out.append(' ').append(pool.resolve(in.readUnsignedShort())).append('=');
+                resolveElementValue(in, pool, out);
+            }
+        }
+
+        private static void resolveElementValue(DataInputStream in, ConstantPool pool, StringBuilder out) throws IOException {
+            char tag = (char) in.readUnsignedByte();
+            out.append(tag);
+            switch (tag) {
+                case 'e' -> out.append(pool.resolve(in.readUnsignedShort())).append('.').append(pool.resolve(in.readUnsignedShort()));
+                case '@' -> resolveAnnotation(in, pool, out);
+                case '[' -> {
+                    int values = in.readUnsignedShort();
+                    out.append(values);
+                    for (int i = 0; i < values; i++) {
+                        out.append(',');
+                        resolveElementValue(in, pool, out);
+                    }
+                }
+                // Constants of every primitive type and String, or c for a class literal
+                default -> out.append(pool.resolve(in.readUnsignedShort()));
+            }
+        }
+
+        private static void skipAttributes(DataInputStream in) throws IOException {
+            int attributes = in.readUnsignedShort();
+            for (int a = 0; a < attributes; a++) {
+                in.skipBytes(2);
+                in.skipBytes(in.readInt());
+            }
+        }
+
+        // [Lcom/solvd/X; and com/solvd/X both mean com/solvd/X
+        private static String elementClass(String name) {
+            int start = name.lastIndexOf('[') + 1;
+            return start > 0 && name.charAt(start) == 'L' ? name.substring(start + 1, name.length() - 1) : name;
+        }
+
+        // Constant pool indexes used by the instructions of a method
+        private static List<Integer> constantReferences(byte[] code) {
+            List<Integer> references = new ArrayList<>();
+            int pc = 0;
+            while (pc < code.length) {
+                int opcode = code[pc] & 0xff;
+                switch (opcode) {
+                    case 0x12 -> references.add(code[pc + 1] & 0xff);
+                    case 0x13, 0x14, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xbb, 0xbd, 0xc0, 0xc1, 0xc5 ->
+                            references.add(((code[pc + 1] & 0xff) << 8) | (code[pc + 2] & 0xff));
+                    default -> {
+                    }
+                }
+                pc += instructionLength(code, pc);
+            }
+            return references;
+        }
+
+        private static int instructionLength(byte[] code, int pc) {
+            int opcode = code[pc] & 0xff;
+            return switch (opcode) {
+                case 0x10, 0x12, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3a, 0xa9, 0xbc -> 2;
+                case 0x11, 0x13, 0x14, 0x84, 0x99, 0x9a, 0x9b, 0x9c, 0x9d, 0x9e, 0x9f, 0xa0, 0xa1, 0xa2, 0xa3, 0xa4,
+                     0xa5, 0xa6, 0xa7, 0xa8, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xbb, 0xbd, 0xc0, 0xc1, 0xc6,
+                     0xc7 -> 3;
+                case 0xc5 -> 4;
+                case 0xb9, 0xba, 0xc8, 0xc9 -> 5;
+                case 0xc4 -> (code[pc + 1] & 0xff) == 0x84 ? 6 : 4;
+                case 0xaa -> {
+                    int base = (pc + 4) & ~3;
+                    int low = readInt(code, base + 4);
+                    int high = readInt(code, base + 8);
+                    yield base - pc + 12 + 4 * (high - low + 1);
+                }
+                case 0xab -> {
+                    int base = (pc + 4) & ~3;
+                    yield base - pc + 8 + 8 * readInt(code, base + 4);
+                }
+                default -> 1;
+            };
+        }
+
+        private static int readInt(byte[] code, int at) {
+            return ((code[at] & 0xff) << 24) | ((code[at + 1] & 0xff) << 16) | ((code[at + 2] & 0xff) << 8) | (code[at + 3] & 0xff);
+        }
+    }
+}
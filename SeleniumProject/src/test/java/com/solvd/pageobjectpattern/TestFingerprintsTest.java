@@ -0,0 +1,102 @@
+package com.solvd.pageobjectpattern;
+
+import com.solvd.testng.pages.CheckoutPage;
+import com.solvd.testng.pages.ProductPage;
+import com.solvd.testng.utils.DriverPool;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+ * Fingerprints of ProductStoreTest's own tests, computed from this project's compiled classes. An edit is
+ * simulated by handing TestFingerprints a class file whose SourceFile name has one letter changed, which keeps
+ * it a valid class file.
+ */
+public class TestFingerprintsTest {
+
+    private static final List<String> CONFIGURATION = configurationMethods();
+
+    @Test
+    public void parsesEveryProjectClass() throws IOException, URISyntaxException, ClassNotFoundException {
+        List<Class<?>> classes = new ArrayList<>();
+        for (Class<?> root : List.of(DriverPool.class, ProductStoreTest.class)) {
+            Path directory = Path.of(root.getProtectionDomain().getCodeSource().getLocation().toURI());
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                    String name = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), ".");
+                    classes.add(Class.forName(name.substring(0, name.length() - ".class".length()), false,
+                            getClass().getClassLoader()));
+                }
+            }
+        }
+        Assert.assertFalse(classes.isEmpty());
+        for (Class<?> type : classes) {
+            for (Method method : type.getDeclaredMethods()) {
+                String fingerprint = TestFingerprints.of(type, method.getName(), List.of());
+                Assert.assertEquals(fingerprint, TestFingerprints.of(type, method.getName(), List.of(),
+                        TestFingerprints::classBytes), type.getName() + "." + method.getName());
+            }
+        }
+    }
+
+    @Test
+    public void editingACalledPageObjectChangesTheFingerprint() {
+        Assert.assertNotEquals(fingerprintWithEdited("testAddSingleProductPurchase", CheckoutPage.class),
+                fingerprint("testAddSingleProductPurchase"));
+        Assert.assertNotEquals(fingerprintWithEdited("testAddProductToCart", ProductPage.class),
+                fingerprint("testAddProductToCart"));
+    }
+
+    @Test
+    public void editingAnUnrelatedPageObjectKeepsTheFingerprint() {
+        Assert.assertEquals(fingerprintWithEdited("testLogin", CheckoutPage.class), fingerprint("testLogin"));
+        Assert.assertEquals(fingerprintWithEdited("testAddSingleProductPurchase", ProductPage.class),
+                fingerprint("testAddSingleProductPurchase"));
+    }
+
+    private static String fingerprint(String testMethod) {
+        return TestFingerprints.of(ProductStoreTest.class, testMethod, CONFIGURATION);
+    }
+
+    private static String fingerprintWithEdited(String testMethod, Class<?> edited) {
+        String editedName = edited.getName().replace('.', '/');
+        return TestFingerprints.of(ProductStoreTest.class, testMethod, CONFIGURATION, name -> {
+            byte[] bytes = TestFingerprints.classBytes(name);
+            return name.equals(editedName) ? withSourceFileEdited(bytes, edited.getSimpleName() + ".java") : bytes;
+        });
+    }
+
+    private static byte[] withSourceFileEdited(byte[] classFile, String sourceFile) {
+        byte[] pattern = sourceFile.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i + pattern.length <= classFile.length; i++) {
+            if (Arrays.equals(classFile, i, i + pattern.length, pattern, 0, pattern.length)) {
+                byte[] edited = classFile.clone();
+                edited[i] ^= 0x20;
+                return edited;
+            }
+        }
+        throw new IllegalStateException("No " + sourceFile + " in the class file");
+    }
+
+    // As SelectiveRerun passes them, the methods run around every test
+    private static List<String> configurationMethods() {
+        return Stream.of(ProductStoreTest.class.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(BeforeMethod.class)
+                        || method.isAnnotationPresent(AfterMethod.class))
+                .map(Method::getName)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.solvd.pageobjectpattern;
+
+import com.solvd.testng.utils.DriverPool;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IExecutorServiceFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Runs every test method on its own virtual thread instead of TestNG's fixed platform-thread pool:
+ *
+ *   java org.testng.TestNG -threadpoolfactoryclass com.solvd.pageobjectpattern.VirtualThreadExecutorFactory testng.xml
+ *
+ * thread-count is ignored. At most -Dvthreads.limit tests (by default the driver pool's capacity) run at once,
+ * so the rest wait for a permit instead of piling up on the pool's lease timeout. Suite and data-provider
+ * executors also get virtual threads but no limit, as their tasks wait on the test tasks themselves.
+ */
+@Slf4j
+public class VirtualThreadExecutorFactory implements IExecutorServiceFactory {
+
+    private static final String TEST_THREADS = "TestNG-test-";
+
+    private final int limit = Integer.getInteger("vthreads.limit", DriverPool.getCapacity());
+
+    @Override
+    public ExecutorService create(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory) {
+        // TestNG names its threads after what the executor runs, e.g. TestNG-test-<test name>-1
+        String name = threadFactory.newThread(() -> {
+        }).getName();
+        String prefix = name.substring(0, name.lastIndexOf('-') + 1);
+        ExecutorService threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory());
+        if (!prefix.startsWith(TEST_THREADS)) {
+            return threads;
+        }
+        log.info("Running up to {} test methods at a time on virtual threads", limit);
+        return new LimitedExecutor(threads, new Semaphore(limit, true));
+    }
+
+    // Each task takes a permit on its own virtual thread, so TestNG's scheduler never blocks handing work over
+    private static class LimitedExecutor extends AbstractExecutorService {
+
+        private final ExecutorService threads;
+        private final Semaphore permits;
+
+        LimitedExecutor(ExecutorService threads, Semaphore permits) {
+            this.threads = threads;
+            this.permits = permits;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            threads.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            threads.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return threads.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return threads.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return threads.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return threads.awaitTermination(timeout, unit);
+        }
+    }
+}